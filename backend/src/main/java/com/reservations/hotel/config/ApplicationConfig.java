@@ -1,6 +1,8 @@
 package com.reservations.hotel.config;
 
 import com.reservations.hotel.services.CustomUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -8,6 +10,9 @@ import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
 
 @Configuration
 public class ApplicationConfig {
@@ -17,18 +22,25 @@ public class ApplicationConfig {
         this.userDetailsService = userDetailsService;
     }
 
+    // 0 threads means half the available processors, a strength of 0 is calibrated to the target latency
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(MeterRegistry meterRegistry,
+                                                 @Value("${hotel.password-hashing.threads}") int threads,
+                                                 @Value("${hotel.password-hashing.queue-capacity}") int queueCapacity,
+                                                 @Value("${hotel.password-hashing.bcrypt.strength}") int strength,
+                                                 @Value("${hotel.password-hashing.bcrypt.target-latency}") Duration targetLatency) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        int cost = strength > 0 ? strength : BCryptCostCalibrator.calibrate(targetLatency);
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(cost), poolSize, queueCapacity, meterRegistry);
     }
     @Bean
     public AuthenticationManager authenticationManager(AuthenticationConfiguration config) throws Exception {
         return config.getAuthenticationManager();
     }
     @Bean
-    public AuthenticationProvider authenticationProvider() {
+    public AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder) {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider(userDetailsService);
-        authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setPasswordEncoder(passwordEncoder);
         return authProvider;
     }
 }
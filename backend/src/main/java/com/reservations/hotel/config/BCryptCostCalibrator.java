@@ -0,0 +1,46 @@
+package com.reservations.hotel.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks the BCrypt cost for this host: the highest cost whose check stays within a target latency, never below
+ * Spring's default of 10. Each step up doubles the work, so one measurement at the base cost is enough.
+ */
+@Slf4j
+public final class BCryptCostCalibrator {
+    public static final int MIN_STRENGTH = 10;
+    public static final int MAX_STRENGTH = 16;
+    private static final int ROUNDS = 5;
+
+    private BCryptCostCalibrator() {
+    }
+
+    public static int calibrate(Duration targetLatency) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(MIN_STRENGTH);
+        String hash = encoder.encode("calibration");
+        // Fastest of a few rounds, the first ones include JIT warm-up
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            long start = System.nanoTime();
+            encoder.matches("calibration", hash);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        int strength = strengthFor(targetLatency, Duration.ofNanos(fastest));
+        log.info("BCrypt cost {} takes {} ms here, using cost {} for a target of {} ms",
+                MIN_STRENGTH, fastest / 1_000_000, strength, targetLatency.toMillis());
+        return strength;
+    }
+
+    public static int strengthFor(Duration targetLatency, Duration atMinStrength) {
+        int strength = MIN_STRENGTH;
+        long nanos = atMinStrength.toNanos();
+        while (strength < MAX_STRENGTH && nanos * 2 <= targetLatency.toNanos()) {
+            nanos *= 2;
+            strength++;
+        }
+        return strength;
+    }
+}
@@ -2,6 +2,7 @@ package com.reservations.hotel.config;
 
 import com.reservations.hotel.exceptions.*;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -89,6 +90,50 @@ public class GlobalExceptionHandler {
     public ResponseEntity<Map<String,Object>> handleRoomHasActiveReservationsException(RoomHasActiveReservationsException ex) {
         return buildErrorResponse(ex, HttpStatus.BAD_REQUEST, ex.getMessage());
     }
+    @ExceptionHandler(RoomLockTimeoutException.class)
+    public ResponseEntity<Map<String,Object>> handleRoomLockTimeoutException(RoomLockTimeoutException ex) {
+        return buildErrorResponse(ex, HttpStatus.CONFLICT, ex.getMessage());
+    }
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<Map<String,Object>> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+        return buildErrorResponse(ex, HttpStatus.UNPROCESSABLE_ENTITY, ex.getMessage());
+    }
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<Map<String,Object>> handleIdempotencyKeyInProgressException(IdempotencyKeyInProgressException ex) {
+        return buildErrorResponse(ex, HttpStatus.CONFLICT, ex.getMessage());
+    }
+    @ExceptionHandler(TokenRevokedException.class)
+    public ResponseEntity<Map<String,Object>> handleTokenRevokedException(TokenRevokedException ex) {
+        return buildErrorResponse(ex, HttpStatus.UNAUTHORIZED, ex.getMessage());
+    }
+    @ExceptionHandler(InvalidCredentialsException.class)
+    public ResponseEntity<Map<String,Object>> handleInvalidCredentialsException(InvalidCredentialsException ex) {
+        return buildErrorResponse(ex, HttpStatus.UNAUTHORIZED, ex.getMessage());
+    }
+    @ExceptionHandler(InvalidRefreshTokenException.class)
+    public ResponseEntity<Map<String,Object>> handleInvalidRefreshTokenException(InvalidRefreshTokenException ex) {
+        return buildErrorResponse(ex, HttpStatus.UNAUTHORIZED, ex.getMessage());
+    }
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<Map<String,Object>> handleRateLimitExceededException(RateLimitExceededException ex) {
+        // Whole seconds, rounded up so a client retrying on time is not refused again
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(buildErrorResponse(ex, HttpStatus.TOO_MANY_REQUESTS, ex.getMessage()).getBody());
+    }
+    @ExceptionHandler(HashingCapacityExceededException.class)
+    public ResponseEntity<Map<String,Object>> handleHashingCapacityExceededException(HashingCapacityExceededException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(buildErrorResponse(ex, HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage()).getBody());
+    }
+    @ExceptionHandler(RoomImportAbortedException.class)
+    public ResponseEntity<Map<String,Object>> handleRoomImportAbortedException(RoomImportAbortedException ex) {
+        ResponseEntity<Map<String, Object>> response = buildErrorResponse(ex, HttpStatus.BAD_REQUEST, ex.getMessage());
+        response.getBody().put("result", ex.getResult());
+        return response;
+    }
     private ResponseEntity<Map<String, Object>> buildErrorResponse(Exception ex, HttpStatus httpStatus, String anInternalServerErrorOccurred) {
         Map<String, Object> body = new HashMap<>();
         body.put("timestamp", LocalDateTime.now());
@@ -0,0 +1,36 @@
+package com.reservations.hotel.config;
+
+import com.reservations.hotel.dto.JobLockDto;
+import com.reservations.hotel.repositories.JobLockRepository;
+import com.reservations.hotel.services.JobLockService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// GET /actuator/joblocks - leases of the scheduled jobs across all instances
+@Component
+@Endpoint(id = "joblocks")
+public class JobLocksEndpoint {
+    private final JobLockRepository jobLockRepository;
+    private final JobLockService jobLockService;
+
+    public JobLocksEndpoint(JobLockRepository jobLockRepository, JobLockService jobLockService) {
+        this.jobLockRepository = jobLockRepository;
+        this.jobLockService = jobLockService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> jobLocks() {
+        Set<String> heldLocally = jobLockService.heldLocally();
+        List<JobLockDto> locks = jobLockRepository.findAll(Sort.by("name")).stream()
+                .map(jobLock -> new JobLockDto(jobLock, heldLocally.contains(jobLock.getName())
+                        && jobLock.getLockedBy().equals(jobLockService.owner())))
+                .toList();
+        return Map.of("instance", jobLockService.owner(), "locks", locks);
+    }
+}
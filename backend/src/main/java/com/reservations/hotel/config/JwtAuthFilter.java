@@ -1,7 +1,12 @@
 package com.reservations.hotel.config;
 
-import com.reservations.hotel.services.CustomUserDetailsService;
+import com.reservations.hotel.exceptions.TokenRevokedException;
+import com.reservations.hotel.models.AuthenticatedUser;
+import com.reservations.hotel.models.User;
 import com.reservations.hotel.services.JwtService;
+import com.reservations.hotel.services.TokenRevocationService;
+import com.reservations.hotel.services.TokenVersionService;
+import com.reservations.hotel.services.UserService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,12 +25,17 @@ import java.io.IOException;
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
     private final JwtService jwtService;
-    private final CustomUserDetailsService userDetailsService;
+    private final TokenVersionService tokenVersionService;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserService userService;
     private final HandlerExceptionResolver handlerExceptionResolver;
 
-    public JwtAuthFilter(JwtService jwtService, CustomUserDetailsService userDetailsService, HandlerExceptionResolver handlerExceptionResolver) {
+    public JwtAuthFilter(JwtService jwtService, TokenVersionService tokenVersionService, TokenRevocationService tokenRevocationService,
+                         UserService userService, HandlerExceptionResolver handlerExceptionResolver) {
         this.jwtService = jwtService;
-        this.userDetailsService = userDetailsService;
+        this.tokenVersionService = tokenVersionService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.userService = userService;
         this.handlerExceptionResolver = handlerExceptionResolver;
     }
 
@@ -38,19 +48,18 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
         try {
             final String jwt = authHeader.substring(7);
-            final String userEmail = jwtService.extractUsername(jwt);
+            // Throws for forged or expired tokens, the signature is checked once per token until it expires
+            final JwtService.TokenClaims claims = jwtService.verify(jwt);
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            if (userEmail != null && authentication == null) {
-                var userDetails = userDetailsService.loadUserByUsername(userEmail);
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    var authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
-                            null,
-                            userDetails.getAuthorities()
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+            if (claims.subject() != null && authentication == null) {
+                AuthenticatedUser principal = toPrincipal(claims);
+                var authToken = new UsernamePasswordAuthenticationToken(
+                        principal,
+                        null,
+                        principal.authorities()
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
             filterChain.doFilter(request, response);
 
@@ -60,4 +69,27 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
     }
+
+    // Built from the claims alone, only the token version is checked against a cached value
+    private AuthenticatedUser toPrincipal(JwtService.TokenClaims claims) {
+        if (claims.refresh()) {
+            throw new TokenRevokedException("Refresh tokens are only accepted by /auth/refresh");
+        }
+        // Answered from memory unless the id is in the revocation filter
+        if (claims.id() != null && tokenRevocationService.isRevoked(claims.id())) {
+            throw new TokenRevokedException("Token has been revoked");
+        }
+        if (claims.hasIdentity()) {
+            if (!tokenVersionService.isCurrent(claims.userId(), claims.tokenVersion())) {
+                throw new TokenRevokedException("Token has been revoked");
+            }
+            return new AuthenticatedUser(claims.userId(), claims.subject(), claims.role());
+        }
+        // Tokens issued before the uid, role and ver claims stay valid until the user's tokens are first revoked
+        User user = userService.getCurrentUser(claims.subject());
+        if (user.getTokenVersion() != 0) {
+            throw new TokenRevokedException("Token has been revoked");
+        }
+        return AuthenticatedUser.of(user);
+    }
 }
@@ -43,6 +43,8 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/auth/**").permitAll()
                 .requestMatchers("/rooms/**").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 .anyRequest().authenticated())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authenticationProvider(authProvider)
@@ -59,7 +61,8 @@ public class SecurityConfig {
         CorsConfiguration corsConfiguration = new CorsConfiguration();
         corsConfiguration.setAllowedOrigins(List.of("http://localhost:3000", "http://localhost:8080", "http://localhost:5173", "http://127.0.0.1:3000", "http://127.0.0.1:5173")); // Allow local development origins
         corsConfiguration.setAllowedMethods(List.of("GET", "POST", "PUT","PATCH", "DELETE")); // Allow specific methods
-        corsConfiguration.setAllowedHeaders(List.of("Authorization", "Content-Type")); // Allow specific headers
+        corsConfiguration.setAllowedHeaders(List.of("Authorization", "Content-Type", "If-None-Match", "Idempotency-Key")); // Allow specific headers
+        corsConfiguration.setExposedHeaders(List.of("ETag")); // Let the frontend revalidate room listings
         corsConfiguration.setAllowCredentials(true); // Allow credentials
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
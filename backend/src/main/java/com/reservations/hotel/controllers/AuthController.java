@@ -6,8 +6,11 @@ import com.reservations.hotel.exceptions.UserAlreadyVerifiedException;
 import com.reservations.hotel.exceptions.UserNotFoundException;
 import com.reservations.hotel.exceptions.VerificationExpiredException;
 import com.reservations.hotel.models.User;
+import com.reservations.hotel.services.AuthRateLimiter;
 import com.reservations.hotel.services.AuthService;
 import com.reservations.hotel.services.JwtService;
+import com.reservations.hotel.services.RefreshTokenService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -15,6 +18,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -25,31 +29,52 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthController {
     private final JwtService jwtService;
     private final AuthService authenticationService;
+    private final RefreshTokenService refreshTokenService;
+    private final AuthRateLimiter rateLimiter;
 
-    public AuthController(JwtService jwtService, AuthService authenticationService) {
+    public AuthController(JwtService jwtService, AuthService authenticationService, RefreshTokenService refreshTokenService,
+                          AuthRateLimiter rateLimiter) {
         this.jwtService = jwtService;
         this.authenticationService = authenticationService;
+        this.refreshTokenService = refreshTokenService;
+        this.rateLimiter = rateLimiter;
     }
     @PostMapping("/register")
-    public ResponseEntity<UserResponseDto> register(@RequestBody @Valid RegisterDto user) {
+    public ResponseEntity<UserResponseDto> register(@RequestBody @Valid RegisterDto user, HttpServletRequest request) {
         log.info("POST /auth/register: Registering user with email: {}", user.getEmail());
+        rateLimiter.check(AuthRateLimiter.Endpoint.REGISTER, request.getRemoteAddr(), user.getEmail());
         UserResponseDto registeredUser = authenticationService.registerUser(user);
         log.debug("POST /auth/register User registered with ID: {}", registeredUser.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(registeredUser);
     }
     @PostMapping("/login")
-    public ResponseEntity<LoginResponseDto> authenticate(@RequestBody @Valid LoginDto user) {
+    public ResponseEntity<LoginResponseDto> authenticate(@RequestBody @Valid LoginDto user, HttpServletRequest request) {
         log.info("POST /auth/login: Authenticating user with email: {}", user.getEmail());
+        rateLimiter.check(AuthRateLimiter.Endpoint.LOGIN, request.getRemoteAddr(), user.getEmail());
         User authenticatedUser = authenticationService.authenticate(user);
-        String token = jwtService.generateToken(authenticatedUser);
-        long expiresIn = jwtService.getExpirationTime();
-        LoginResponseDto response = new LoginResponseDto(token, expiresIn);
+        LoginResponseDto response = issueTokens(authenticatedUser);
         log.debug("POST /auth/login User authenticated with ID: {}", authenticatedUser.getId());
         return ResponseEntity.ok(response);
     }
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponseDto> refresh(@RequestBody @Valid RefreshTokenDto request) {
+        log.info("POST /auth/refresh: Refreshing tokens");
+        User user = refreshTokenService.rotate(request.getRefreshToken());
+        log.debug("POST /auth/refresh Tokens refreshed for user ID: {}", user.getId());
+        return ResponseEntity.ok(issueTokens(user));
+    }
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestBody @Valid RefreshTokenDto request,
+                                       @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        log.info("POST /auth/logout: Revoking tokens");
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        refreshTokenService.logout(request.getRefreshToken(), accessToken);
+        return ResponseEntity.noContent().build();
+    }
     @PostMapping("/verify")
-    public ResponseEntity<?> verifyUser(@RequestBody @Valid VerifyDto verifyDto) {
+    public ResponseEntity<?> verifyUser(@RequestBody @Valid VerifyDto verifyDto, HttpServletRequest request) {
         log.info("POST /auth/verify: Verifying user with email: {}", verifyDto.getEmail());
+        rateLimiter.check(AuthRateLimiter.Endpoint.VERIFY, request.getRemoteAddr(), verifyDto.getEmail());
         try{
             authenticationService.verifyUser(verifyDto);
             log.debug("POST /auth/verify User successfully verified with email: {}", verifyDto.getEmail());
@@ -62,8 +87,9 @@ public class AuthController {
     }
 
     @PostMapping("/resend")
-    public ResponseEntity<?> resendVerification(@RequestBody EmailRequestDto request) {
+    public ResponseEntity<?> resendVerification(@RequestBody EmailRequestDto request, HttpServletRequest httpRequest) {
         log.info("POST /auth/resend: Resending verification email to: {}", request.getEmail());
+        rateLimiter.check(AuthRateLimiter.Endpoint.RESEND, httpRequest.getRemoteAddr(), request.getEmail());
         try {
             authenticationService.resendVerificationCode(request.getEmail());
             log.debug("POST /auth/resend Verification email resent successfully to: {}", request.getEmail());
@@ -73,4 +99,9 @@ public class AuthController {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
+
+    private LoginResponseDto issueTokens(User user) {
+        return new LoginResponseDto(jwtService.generateToken(user), jwtService.getExpirationTime(),
+                jwtService.generateRefreshToken(user), jwtService.getRefreshExpirationTime());
+    }
 }
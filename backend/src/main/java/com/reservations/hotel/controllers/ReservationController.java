@@ -1,19 +1,26 @@
 package com.reservations.hotel.controllers;
 
+import com.reservations.hotel.dto.PageResponseDto;
 import com.reservations.hotel.dto.ReservationCreateDto;
 import com.reservations.hotel.dto.ReservationResponseDto;
-import com.reservations.hotel.models.User;
+import com.reservations.hotel.exceptions.InvalidSearchParametersException;
+import com.reservations.hotel.models.AuthenticatedUser;
+import com.reservations.hotel.services.IdempotencyService;
+import com.reservations.hotel.services.ReservationExportService;
 import com.reservations.hotel.services.ReservationService;
 import com.reservations.hotel.services.UserService;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -25,21 +32,57 @@ import java.util.List;
 public class ReservationController {
     private final ReservationService reservationService;
     private final UserService userService;
-    public ReservationController(ReservationService reservationService, UserService userService) {
+    private final ReservationExportService reservationExportService;
+    private final IdempotencyService idempotencyService;
+    public ReservationController(ReservationService reservationService, UserService userService, ReservationExportService reservationExportService,
+                                 IdempotencyService idempotencyService) {
         this.reservationService = reservationService;
         this.userService = userService;
+        this.reservationExportService = reservationExportService;
+        this.idempotencyService = idempotencyService;
     }
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<ReservationResponseDto>> getAllReservations() {
-        List<ReservationResponseDto> reservations = reservationService.getAllReservations();
-        return ResponseEntity.status(HttpStatus.OK).body(reservations);
+    public ResponseEntity<?> getAllReservations(@RequestParam(required = false) String cursor,
+                                                @RequestParam(required = false) Integer limit,
+                                                @RequestParam(defaultValue = "false") boolean unpaged) {
+        if (unpaged) {
+            List<ReservationResponseDto> reservations = reservationService.getAllReservations();
+            return ResponseEntity.status(HttpStatus.OK).body(reservations);
+        }
+        PageResponseDto<ReservationResponseDto> page = reservationService.getReservationsPage(cursor, limit);
+        return ResponseEntity.status(HttpStatus.OK).body(page);
+    }
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportReservations(@RequestParam(defaultValue = "ndjson") String format) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        log.info("GET /reservations/export: Admin {} exporting reservations as {}", authentication.getName(), format);
+        return switch (format) {
+            case "ndjson" -> ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .body(reservationExportService::writeNdjson);
+            case "csv" -> ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reservations.csv\"")
+                    .body(reservationExportService::writeCsv);
+            default -> throw new InvalidSearchParametersException("Unsupported export format: " + format);
+        };
     }
     @PostMapping
-    public ResponseEntity<ReservationResponseDto> reserveRoom(@RequestBody @Valid ReservationCreateDto input) {
-        User user = getCurrentUser();
-        ReservationResponseDto createdReservation = reservationService.createReservation(user.getId(), input);
-        return ResponseEntity.status(HttpStatus.CREATED).body(createdReservation);
+    public ResponseEntity<?> reserveRoom(@RequestBody @Valid ReservationCreateDto input,
+                                         @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            ReservationResponseDto createdReservation = reservationService.createReservation(getCurrentUserId(), input);
+            return ResponseEntity.status(HttpStatus.CREATED).body(createdReservation);
+        }
+        // Retries with the same key get the first response replayed instead of a second booking
+        String email = SecurityContextHolder.getContext().getAuthentication().getName();
+        IdempotencyService.StoredResponse response = idempotencyService.execute(email, idempotencyKey, idempotencyService.hash(input), () -> {
+            ReservationResponseDto createdReservation = reservationService.createReservation(getCurrentUserId(), input);
+            return idempotencyService.json(HttpStatus.CREATED.value(), createdReservation);
+        });
+        return ResponseEntity.status(response.status()).contentType(MediaType.APPLICATION_JSON).body(response.body());
     }
     @PatchMapping("/{reservationId}/confirm")
     public ResponseEntity<ReservationResponseDto> confirmReservation(@PathVariable Long reservationId) {
@@ -64,13 +107,15 @@ public class ReservationController {
     }
 
     private boolean isNotReservationOwner(Long reservationId) {
-        User user = getCurrentUser();
-        return user.getReservations().stream()
-                .noneMatch(r -> r.getId().equals(reservationId));
+        return !reservationService.isReservationOwner(reservationId, getCurrentUserId());
     }
-    private User getCurrentUser() {
+
+    // Requests authenticated other than by JwtAuthFilter fall back to looking the user up by email
+    private Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userService.getCurrentUser(email);
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
+        }
+        return userService.getCurrentUser(authentication.getName()).getId();
     }
 }
@@ -1,21 +1,35 @@
 package com.reservations.hotel.controllers;
 
+import com.reservations.hotel.dto.AvailabilityCalendarDto;
+import com.reservations.hotel.dto.DateSuggestionDto;
+import com.reservations.hotel.dto.PageResponseDto;
 import com.reservations.hotel.dto.RoomCreateDto;
+import com.reservations.hotel.dto.RoomImportResultDto;
 import com.reservations.hotel.dto.RoomResponseDto;
 import com.reservations.hotel.dto.RoomUpdateDto;
 import com.reservations.hotel.models.RoomType;
+import com.reservations.hotel.services.AvailabilityCalendarService;
+import com.reservations.hotel.services.CatalogVersion;
+import com.reservations.hotel.services.KeysetPaging;
+import com.reservations.hotel.services.RoomImportService;
 import com.reservations.hotel.services.RoomService;
+import com.reservations.hotel.services.RoomSuggestionService;
 import jakarta.validation.Valid;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -25,22 +39,65 @@ import java.util.List;
 @Slf4j
 public class RoomController {
     private final RoomService roomService;
+    private final CatalogVersion catalogVersion;
+    private final AvailabilityCalendarService availabilityCalendarService;
+    private final RoomSuggestionService roomSuggestionService;
+    private final RoomImportService roomImportService;
 
-    public RoomController(RoomService roomService) {
+    public RoomController(RoomService roomService, CatalogVersion catalogVersion, AvailabilityCalendarService availabilityCalendarService,
+                          RoomSuggestionService roomSuggestionService, RoomImportService roomImportService) {
         this.roomService = roomService;
+        this.catalogVersion = catalogVersion;
+        this.availabilityCalendarService = availabilityCalendarService;
+        this.roomSuggestionService = roomSuggestionService;
+        this.roomImportService = roomImportService;
     }
 
     @GetMapping
-    public ResponseEntity<List<RoomResponseDto>> getSpecific(@RequestParam(required = false) Integer roomNumber,
-                                                             @RequestParam(required = false) RoomType type,
-                                                             @RequestParam(required = false) Integer minCapacity,
-                                                             @RequestParam(required = false) Double maxPricePerNight,
-                                                             @RequestParam(required = false) LocalDate checkInDate,
-                                                             @RequestParam(required = false) LocalDate checkOutDate) {
-        List<RoomResponseDto> rooms = roomService.getSpecificRoomsDto(roomNumber, type, minCapacity, maxPricePerNight, checkInDate, checkOutDate);
-        return ResponseEntity.status(HttpStatus.OK).body(rooms);
+    public ResponseEntity<?> getSpecific(@RequestParam(required = false) Integer roomNumber,
+                                         @RequestParam(required = false) RoomType type,
+                                         @RequestParam(required = false) Integer minCapacity,
+                                         @RequestParam(required = false) Double maxPricePerNight,
+                                         @RequestParam(required = false) LocalDate checkInDate,
+                                         @RequestParam(required = false) LocalDate checkOutDate,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(defaultValue = "false") boolean unpaged,
+                                         WebRequest request) {
+        String etag = catalogVersion.etag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+        if (unpaged) {
+            List<RoomResponseDto> rooms = KeysetPaging.requireUnpaged(
+                    roomService.getSpecificRoomsDto(roomNumber, type, minCapacity, maxPricePerNight, checkInDate, checkOutDate));
+            return ResponseEntity.status(HttpStatus.OK).eTag(etag).cacheControl(CacheControl.noCache()).body(rooms);
+        }
+        PageResponseDto<RoomResponseDto> page = roomService.getSpecificRoomsPage(roomNumber, type, minCapacity, maxPricePerNight, checkInDate, checkOutDate, cursor, limit);
+        return ResponseEntity.status(HttpStatus.OK).eTag(etag).cacheControl(CacheControl.noCache()).body(page);
     }
 
+    @GetMapping("/availability-calendar")
+    public ResponseEntity<AvailabilityCalendarDto> getAvailabilityCalendar(@RequestParam LocalDate from,
+                                                                           @RequestParam LocalDate to,
+                                                                           @RequestParam(required = false) RoomType type,
+                                                                           WebRequest request) {
+        String etag = catalogVersion.etag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+        AvailabilityCalendarDto calendar = availabilityCalendarService.getCalendar(from, to, type);
+        return ResponseEntity.status(HttpStatus.OK).eTag(etag).cacheControl(CacheControl.noCache()).body(calendar);
+    }
+
+    @GetMapping("/{roomId}/suggestions")
+    public ResponseEntity<List<DateSuggestionDto>> getSuggestions(@PathVariable @NonNull Long roomId,
+                                                                  @RequestParam LocalDate checkInDate,
+                                                                  @RequestParam LocalDate checkOutDate,
+                                                                  @RequestParam(required = false) Integer limit) {
+        List<DateSuggestionDto> suggestions = roomSuggestionService.suggest(roomId, checkInDate, checkOutDate, limit);
+        return ResponseEntity.status(HttpStatus.OK).body(suggestions);
+    }
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
@@ -52,6 +109,22 @@ public class RoomController {
         return ResponseEntity.status(HttpStatus.CREATED).body(createdRoom);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RoomImportResultDto> importRoomsJson(InputStream body) throws IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        log.info("POST /rooms/bulk: Admin {} importing rooms from JSON", authentication.getName());
+        return ResponseEntity.status(HttpStatus.OK).body(roomImportService.importJson(body));
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RoomImportResultDto> importRoomsCsv(InputStream body) throws IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        log.info("POST /rooms/bulk: Admin {} importing rooms from CSV", authentication.getName());
+        return ResponseEntity.status(HttpStatus.OK).body(roomImportService.importCsv(body));
+    }
+
     @PatchMapping("/{roomId}")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<RoomResponseDto> updateRoom(@PathVariable @NonNull Long roomId, @RequestBody @NonNull @Valid RoomUpdateDto input){
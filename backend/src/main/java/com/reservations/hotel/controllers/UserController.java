@@ -3,8 +3,10 @@ package com.reservations.hotel.controllers;
 import com.reservations.hotel.dto.AdminViewUserDto;
 import com.reservations.hotel.dto.ReservationResponseDto;
 import com.reservations.hotel.dto.UserResponseDto;
+import com.reservations.hotel.models.AuthenticatedUser;
 import com.reservations.hotel.models.User;
 import com.reservations.hotel.services.ReservationService;
+import com.reservations.hotel.services.TokenVersionService;
 import com.reservations.hotel.services.UserService;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -24,17 +26,17 @@ import java.util.List;
 public class UserController {
     private final UserService userService;
     private final ReservationService reservationService;
+    private final TokenVersionService tokenVersionService;
 
-    public UserController(UserService userService, ReservationService reservationService) {
+    public UserController(UserService userService, ReservationService reservationService, TokenVersionService tokenVersionService) {
         this.userService = userService;
         this.reservationService = reservationService;
+        this.tokenVersionService = tokenVersionService;
     }
 
     @GetMapping("/me")
     public ResponseEntity<UserResponseDto> authenticatedUser() {
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        UserResponseDto currentUser = userService.getCurrentUserDto(email);
+        UserResponseDto currentUser = userService.getUserDto(getCurrentUserId());
         return ResponseEntity.ok(currentUser);
     }
     @GetMapping
@@ -58,8 +60,7 @@ public class UserController {
 
     @GetMapping("/me/reservations")
     public ResponseEntity<List<ReservationResponseDto>> getMyReservations() {
-        User user = getCurrentUser();
-        List<ReservationResponseDto> reservations = reservationService.getUserReservationsDto(user.getId());
+        List<ReservationResponseDto> reservations = reservationService.getUserReservationsDto(getCurrentUserId());
         return ResponseEntity.ok(reservations);
     }
     @GetMapping("/{userId}/reservations")
@@ -71,10 +72,21 @@ public class UserController {
         List<ReservationResponseDto> reservations = reservationService.getUserReservationsDto(user.getId());
         return ResponseEntity.ok(reservations);
     }
+    @PostMapping("/{userId}/tokens/revoke")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> revokeTokens(@PathVariable @NonNull Long userId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        log.info("POST /users/{}/tokens/revoke: Admin {} is revoking all tokens of user", userId, authentication.getName());
+        tokenVersionService.revokeTokens(userId);
+        return ResponseEntity.noContent().build();
+    }
 
-    private User getCurrentUser() {
+    // Requests authenticated other than by JwtAuthFilter fall back to looking the user up by email
+    private Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-        return userService.getCurrentUser(email);
+        if (authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.id();
+        }
+        return userService.getCurrentUser(authentication.getName()).getId();
     }
 }
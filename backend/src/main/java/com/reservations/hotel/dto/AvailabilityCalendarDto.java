@@ -0,0 +1,23 @@
+package com.reservations.hotel.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+public class AvailabilityCalendarDto {
+    private LocalDate from;
+    private LocalDate to; // exclusive, the last night shown starts the day before
+    private int nights;
+    private List<RoomCalendarDto> rooms;
+
+    public AvailabilityCalendarDto(LocalDate from, LocalDate to, List<RoomCalendarDto> rooms) {
+        this.from = from;
+        this.to = to;
+        this.nights = (int) (to.toEpochDay() - from.toEpochDay());
+        this.rooms = rooms;
+    }
+}
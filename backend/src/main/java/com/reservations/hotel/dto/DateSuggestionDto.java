@@ -0,0 +1,27 @@
+package com.reservations.hotel.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.reservations.hotel.models.Room;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@JsonPropertyOrder({ "roomId", "roomNumber", "checkInDate", "checkOutDate", "daysShifted" })
+public class DateSuggestionDto {
+    private Long roomId;
+    private Integer roomNumber;
+    private LocalDate checkInDate;
+    private LocalDate checkOutDate;
+    private long daysShifted; // negative when earlier than requested
+
+    public DateSuggestionDto(Room room, LocalDate checkInDate, LocalDate checkOutDate, long daysShifted) {
+        this.roomId = room.getId();
+        this.roomNumber = room.getRoomNumber();
+        this.checkInDate = checkInDate;
+        this.checkOutDate = checkOutDate;
+        this.daysShifted = daysShifted;
+    }
+}
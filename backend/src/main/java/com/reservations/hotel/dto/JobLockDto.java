@@ -0,0 +1,29 @@
+package com.reservations.hotel.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.reservations.hotel.models.JobLock;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@JsonPropertyOrder({ "name", "lockedBy", "lockedAt", "lockedUntil", "locked", "heldByThisInstance" })
+public class JobLockDto {
+    private String name;
+    private String lockedBy;
+    private LocalDateTime lockedAt;
+    private LocalDateTime lockedUntil;
+    private boolean locked; // by this instance's clock
+    private boolean heldByThisInstance;
+
+    public JobLockDto(JobLock jobLock, boolean heldByThisInstance) {
+        this.name = jobLock.getName();
+        this.lockedBy = jobLock.getLockedBy();
+        this.lockedAt = jobLock.getLockedAt();
+        this.lockedUntil = jobLock.getLockedUntil();
+        this.locked = jobLock.getLockedUntil().isAfter(LocalDateTime.now());
+        this.heldByThisInstance = heldByThisInstance;
+    }
+}
@@ -8,9 +8,13 @@ import lombok.Setter;
 public class LoginResponseDto {
     private String token;
     private long expiresIn;
+    private String refreshToken;
+    private long refreshExpiresIn;
 
-    public LoginResponseDto(String token, long expiresIn) {
+    public LoginResponseDto(String token, long expiresIn, String refreshToken, long refreshExpiresIn) {
         this.token = token;
         this.expiresIn = expiresIn;
+        this.refreshToken = refreshToken;
+        this.refreshExpiresIn = refreshExpiresIn;
     }
 }
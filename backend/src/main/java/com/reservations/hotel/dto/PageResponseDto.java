@@ -0,0 +1,18 @@
+package com.reservations.hotel.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class PageResponseDto<T> {
+    private List<T> items;
+    private String next; // opaque cursor of the following page, null on the last page
+
+    public PageResponseDto(List<T> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+}
@@ -0,0 +1,12 @@
+package com.reservations.hotel.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class RefreshTokenDto {
+    @NotBlank
+    private String refreshToken;
+}
@@ -0,0 +1,43 @@
+package com.reservations.hotel.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.reservations.hotel.models.ReservationStatus;
+import com.reservations.hotel.models.RoomType;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Flat row built directly by the export query, same fields as ReservationResponseDto
+@Getter
+@JsonPropertyOrder({ "id", "email", "roomNumber", "roomType", "roomCapacity", "roomPricePerNight", "totalPrice", "status", "checkInDate", "checkOutDate", "createdAt" })
+public class ReservationExportRowDto {
+    private final Long id;
+    private final String email;
+    private final Integer roomNumber;
+    private final String roomType;
+    private final Integer roomCapacity;
+    private final Double roomPricePerNight;
+    private final Double totalPrice;
+    private final String status;
+    private final String checkInDate;
+    private final String checkOutDate;
+    private final String createdAt;
+
+    public ReservationExportRowDto(Long id, String email, Integer roomNumber, RoomType roomType, Integer roomCapacity,
+                                   Double roomPricePerNight, ReservationStatus status, LocalDate checkInDate,
+                                   LocalDate checkOutDate, LocalDateTime createdAt) {
+        this.id = id;
+        this.email = email;
+        this.roomNumber = roomNumber;
+        this.roomType = roomType.name();
+        this.roomCapacity = roomCapacity;
+        this.roomPricePerNight = roomPricePerNight;
+        long days = checkOutDate.toEpochDay() - checkInDate.toEpochDay();
+        this.totalPrice = Math.round(days * roomPricePerNight * 100.0) / 100.0;
+        this.status = status.name();
+        this.checkInDate = checkInDate.toString();
+        this.checkOutDate = checkOutDate.toString();
+        this.createdAt = createdAt != null ? createdAt.toString() : null;
+    }
+}
@@ -0,0 +1,24 @@
+package com.reservations.hotel.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.reservations.hotel.models.Room;
+import com.reservations.hotel.models.RoomType;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@JsonPropertyOrder({ "id", "roomNumber", "type", "nights" })
+public class RoomCalendarDto {
+    private Long id;
+    private Integer roomNumber;
+    private RoomType type;
+    private String nights; // run-length encoded, F = free and O = occupied followed by the run length, e.g. "F30O5F55"
+
+    public RoomCalendarDto(Room room, String nights) {
+        this.id = room.getId();
+        this.roomNumber = room.getRoomNumber();
+        this.type = room.getType();
+        this.nights = nights;
+    }
+}
@@ -0,0 +1,26 @@
+package com.reservations.hotel.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@JsonPropertyOrder({ "received", "created", "errors" })
+public class RoomImportResultDto {
+    private int received;
+    private int created;
+    private List<RowError> errors;
+
+    public RoomImportResultDto(int received, int created, List<RowError> errors) {
+        this.received = received;
+        this.created = created;
+        this.errors = errors;
+    }
+
+    // row is 1-based and counts data rows only, the CSV header is not a row
+    public record RowError(int row, Integer roomNumber, String message) {
+    }
+}
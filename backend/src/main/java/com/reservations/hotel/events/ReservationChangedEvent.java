@@ -0,0 +1,8 @@
+package com.reservations.hotel.events;
+
+/**
+ * Published whenever a reservation is created or changes status.
+ * Listeners that keep derived state (e.g. the availability index) react after the transaction commits.
+ */
+public record ReservationChangedEvent(Long roomId) {
+}
@@ -0,0 +1,9 @@
+package com.reservations.hotel.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when a PENDING reservation is created, it holds the room until confirmed, cancelled or expired.
+ */
+public record ReservationHeldEvent(Long reservationId, Long roomId, LocalDateTime createdAt) {
+}
@@ -0,0 +1,8 @@
+package com.reservations.hotel.events;
+
+/**
+ * Published when an instance finds a new shared room revision, which may come from a change made on another
+ * instance. Local caches of room metadata must drop everything, they cannot tell which rooms changed.
+ */
+public record RoomCatalogRevisedEvent(long revision) {
+}
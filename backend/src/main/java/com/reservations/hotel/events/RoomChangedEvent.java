@@ -0,0 +1,10 @@
+package com.reservations.hotel.events;
+
+import java.util.List;
+
+/**
+ * Published when a room is added, updated or deleted. {@code roomNumbers} holds every number the room had
+ * before and after the change so caches keyed by number can be evicted precisely.
+ */
+public record RoomChangedEvent(Long roomId, List<Integer> roomNumbers) {
+}
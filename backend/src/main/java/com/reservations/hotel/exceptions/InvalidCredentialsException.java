@@ -0,0 +1,7 @@
+package com.reservations.hotel.exceptions;
+
+public class InvalidCredentialsException extends RuntimeException {
+    public InvalidCredentialsException(String message) {
+        super(message);
+    }
+}
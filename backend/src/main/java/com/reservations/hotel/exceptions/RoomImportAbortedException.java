@@ -0,0 +1,15 @@
+package com.reservations.hotel.exceptions;
+
+import com.reservations.hotel.dto.RoomImportResultDto;
+import lombok.Getter;
+
+// Rows before the point of failure are already committed, result reports them
+@Getter
+public class RoomImportAbortedException extends RuntimeException {
+    private final RoomImportResultDto result;
+
+    public RoomImportAbortedException(String message, RoomImportResultDto result) {
+        super(message);
+        this.result = result;
+    }
+}
@@ -0,0 +1,7 @@
+package com.reservations.hotel.exceptions;
+
+public class RoomLockTimeoutException extends RuntimeException {
+    public RoomLockTimeoutException(String message) {
+        super(message);
+    }
+}
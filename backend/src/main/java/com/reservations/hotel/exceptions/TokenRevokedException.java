@@ -0,0 +1,7 @@
+package com.reservations.hotel.exceptions;
+
+public class TokenRevokedException extends RuntimeException {
+    public TokenRevokedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,27 @@
+package com.reservations.hotel.models;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Principal of a request authenticated by JWT, built from the token's claims without loading the user.
+ * {@link #getName()} is the email, so {@code Authentication.getName()} keeps returning it.
+ */
+public record AuthenticatedUser(Long id, String email, Role role) implements Principal {
+
+    public static AuthenticatedUser of(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getRole());
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    public List<GrantedAuthority> authorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+}
@@ -0,0 +1,22 @@
+package com.reservations.hotel.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Revision counter shared by all instances, bumped in the transaction of every change to what it names. Instances
+ * poll it to notice changes made elsewhere, see {@link com.reservations.hotel.services.CatalogVersion}.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "catalog_revisions")
+public class CatalogRevision {
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(nullable = false)
+    private long revision;
+}
@@ -0,0 +1,7 @@
+package com.reservations.hotel.models;
+
+public enum EmailStatus {
+    PENDING,
+    SENT,
+    DEAD // gave up after the maximum number of attempts
+}
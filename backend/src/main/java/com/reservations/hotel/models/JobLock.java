@@ -0,0 +1,29 @@
+package com.reservations.hotel.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lease on a scheduled job shared by all instances. Rows are written with database time only, see
+ * {@link com.reservations.hotel.repositories.JobLockRepository}.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "job_locks")
+public class JobLock {
+    @Id
+    @Column(length = 100)
+    private String name;
+
+    @Column(nullable = false)
+    private String lockedBy;
+
+    @Column(nullable = false)
+    private LocalDateTime lockedAt;
+    @Column(nullable = false)
+    private LocalDateTime lockedUntil; // free once in the past
+}
@@ -12,7 +12,12 @@ import java.time.LocalDateTime;
 @Getter
 @Setter
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservations_room_check_out", columnList = "room_id, checkOutDate"),
+        @Index(name = "idx_reservations_created_at_id", columnList = "createdAt, id"),
+        @Index(name = "idx_reservations_status_check_out", columnList = "status, checkOutDate"),
+        @Index(name = "idx_reservations_status_created_at", columnList = "status, createdAt")
+})
 @JsonIgnoreProperties({"user", "room"})
 public class Reservation {
     @Id
@@ -32,6 +37,8 @@ public class Reservation {
     @Column(nullable = false)
     private LocalDate checkOutDate;
 
+    // Part of the keyset pagination key, a null would break the cursor and drop the row from later pages
+    @Column(nullable = false)
     private LocalDateTime createdAt;
 
     @Enumerated(EnumType.STRING)
@@ -0,0 +1,29 @@
+package com.reservations.hotel.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Id of a token that must no longer be accepted although its signature and expiry are fine. Kept until the token
+ * expires, see {@link com.reservations.hotel.services.TokenRevocationService}.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revokedAt"),
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expiresAt")
+})
+public class RevokedToken {
+    @Id
+    @Column(length = 36)
+    private String jti;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    @Column(nullable = false)
+    private LocalDateTime revokedAt; // database time
+}
@@ -15,8 +15,10 @@ import java.util.List;
 @Entity
 @Table(name = "rooms")
 public class Room {
+    // Pooled sequence instead of IDENTITY so inserts can be JDBC-batched, see db/rooms-sequence.sql
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rooms_seq")
+    @SequenceGenerator(name = "rooms_seq", sequenceName = "rooms_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false)
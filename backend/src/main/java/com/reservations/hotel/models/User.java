@@ -6,6 +6,7 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -44,6 +45,12 @@ public class User implements UserDetails {
     @Enumerated(EnumType.STRING)
     private Role role;
 
+    // Carried in issued tokens, bumping it invalidates every token issued before. Tokens carry the role and are
+    // only issued to enabled users, so changing either bumps it
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long tokenVersion;
+
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Reservation> reservations = new ArrayList<>();
 
@@ -59,6 +66,20 @@ public class User implements UserDetails {
         this.enabled = false;
     }
 
+    public void setRole(Role role) {
+        if (this.role != role) {
+            this.role = role;
+            tokenVersion++;
+        }
+    }
+
+    public void setEnabled(boolean enabled) {
+        if (this.enabled != enabled) {
+            this.enabled = enabled;
+            tokenVersion++;
+        }
+    }
+
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
         return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + this.role.name()));
@@ -0,0 +1,12 @@
+package com.reservations.hotel.repositories;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of a reservation holding only the room and the stay dates.
+ */
+public interface BookedInterval {
+    Long getRoomId();
+    LocalDate getCheckInDate();
+    LocalDate getCheckOutDate();
+}
@@ -0,0 +1,25 @@
+package com.reservations.hotel.repositories;
+
+import com.reservations.hotel.models.CatalogRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface CatalogRevisionRepository extends JpaRepository<CatalogRevision, String> {
+
+    // Joins the caller's transaction, so the new revision becomes visible together with the change
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO catalog_revisions (name, revision) VALUES (:name, 1) " +
+            "ON CONFLICT (name) DO UPDATE SET revision = catalog_revisions.revision + 1", nativeQuery = true)
+    int bump(@Param("name") String name);
+
+    @Query("SELECT r.revision FROM CatalogRevision r WHERE r.name = :name")
+    Optional<Long> findRevision(@Param("name") String name);
+}
@@ -0,0 +1,49 @@
+package com.reservations.hotel.repositories;
+
+import com.reservations.hotel.models.EmailOutbox;
+import com.reservations.hotel.models.EmailStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutbox, Long> {
+
+    // Rows locked by another dispatcher are skipped rather than waited for; call within a transaction
+    @Query(value = "SELECT * FROM email_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+            "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmailOutbox> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // Hides claimed rows from other dispatchers until the claim runs out
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.nextAttemptAt = :until WHERE e.id IN :ids")
+    int claim(@Param("ids") List<Long> ids, @Param("until") LocalDateTime until);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = com.reservations.hotel.models.EmailStatus.SENT, e.sentAt = :sentAt " +
+            "WHERE e.id IN :ids")
+    int markSent(@Param("ids") List<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE EmailOutbox e SET e.status = :status, e.attempts = :attempts, e.nextAttemptAt = :nextAttemptAt, " +
+            "e.lastError = :error WHERE e.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("status") EmailStatus status, @Param("attempts") int attempts,
+                      @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    // A DEAD row's nextAttemptAt is the time it was given up on
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM EmailOutbox e WHERE (e.status = com.reservations.hotel.models.EmailStatus.SENT AND e.sentAt < :sentBefore) " +
+            "OR (e.status = com.reservations.hotel.models.EmailStatus.DEAD AND e.nextAttemptAt < :deadBefore)")
+    int deleteFinished(@Param("sentBefore") LocalDateTime sentBefore, @Param("deadBefore") LocalDateTime deadBefore);
+
+    long countByStatus(EmailStatus status);
+}
@@ -0,0 +1,9 @@
+package com.reservations.hotel.repositories;
+
+/**
+ * Projection of the smallest and largest id matching a query, both null when nothing matches.
+ */
+public interface IdRange {
+    Long getMinId();
+    Long getMaxId();
+}
@@ -0,0 +1,44 @@
+package com.reservations.hotel.repositories;
+
+import com.reservations.hotel.models.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // 0 when the claim made at claimedAt was taken over in the meantime; join the transaction of the request
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.responseStatus = :status, r.responseBody = :body " +
+            "WHERE r.id = :id AND r.createdAt = :claimedAt AND r.responseStatus IS NULL")
+    int complete(@Param("id") String id, @Param("claimedAt") LocalDateTime claimedAt, @Param("status") int status,
+                 @Param("body") String body);
+
+    // Leaves a claim that was taken over in the meantime alone
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.createdAt = :claimedAt AND r.responseStatus IS NULL")
+    int release(@Param("id") String id, @Param("claimedAt") LocalDateTime claimedAt);
+
+    // Hands an expired or abandoned key to a new request. The row lock makes racing takeovers re-check the
+    // condition against the winner's update, so exactly one of them gets 1.
+    @Transactional
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.requestHash = :requestHash, r.responseStatus = null, r.responseBody = null, " +
+            "r.createdAt = :now, r.expiresAt = :expiresAt " +
+            "WHERE r.id = :id AND (r.expiresAt < :now OR (r.responseStatus IS NULL AND r.createdAt < :abandonedBefore))")
+    int takeOver(@Param("id") String id, @Param("requestHash") String requestHash, @Param("now") LocalDateTime now,
+                 @Param("expiresAt") LocalDateTime expiresAt, @Param("abandonedBefore") LocalDateTime abandonedBefore);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -0,0 +1,37 @@
+package com.reservations.hotel.repositories;
+
+import com.reservations.hotel.models.JobLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+// Leases are compared against the database clock so instances with skewed clocks agree on expiry
+@Repository
+public interface JobLockRepository extends JpaRepository<JobLock, String> {
+
+    // Takes the lease if the row is missing or expired, returns 0 while another instance holds it
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO job_locks (name, locked_by, locked_at, locked_until) " +
+            "VALUES (:name, :owner, LOCALTIMESTAMP, LOCALTIMESTAMP + make_interval(secs => :leaseSeconds)) " +
+            "ON CONFLICT (name) DO UPDATE SET locked_by = EXCLUDED.locked_by, locked_at = EXCLUDED.locked_at, " +
+            "locked_until = EXCLUDED.locked_until " +
+            "WHERE job_locks.locked_until <= LOCALTIMESTAMP", nativeQuery = true)
+    int tryAcquire(@Param("name") String name, @Param("owner") String owner, @Param("leaseSeconds") double leaseSeconds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE job_locks SET locked_until = LOCALTIMESTAMP + make_interval(secs => :leaseSeconds) " +
+            "WHERE name = :name AND locked_by = :owner AND locked_until > LOCALTIMESTAMP", nativeQuery = true)
+    int extend(@Param("name") String name, @Param("owner") String owner, @Param("leaseSeconds") double leaseSeconds);
+
+    // Keeps the lease until lockedAt + minimum hold, so instances firing a little later do not run the job again
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE job_locks SET locked_until = GREATEST(LOCALTIMESTAMP, locked_at + make_interval(secs => :minHoldSeconds)) " +
+            "WHERE name = :name AND locked_by = :owner", nativeQuery = true)
+    int release(@Param("name") String name, @Param("owner") String owner, @Param("minHoldSeconds") double minHoldSeconds);
+}
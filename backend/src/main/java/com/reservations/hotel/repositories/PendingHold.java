@@ -0,0 +1,12 @@
+package com.reservations.hotel.repositories;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection of a PENDING reservation for hold expiry.
+ */
+public interface PendingHold {
+    Long getReservationId();
+    Long getRoomId();
+    LocalDateTime getCreatedAt();
+}
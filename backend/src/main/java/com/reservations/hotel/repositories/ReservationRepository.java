@@ -1,14 +1,23 @@
 package com.reservations.hotel.repositories;
 
+import com.reservations.hotel.dto.ReservationExportRowDto;
 import com.reservations.hotel.models.Reservation;
 import com.reservations.hotel.models.ReservationStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Long> {
@@ -29,6 +38,118 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
             @Param("checkOut") LocalDate checkOut
     );
 
-    List<Reservation> findByStatusAndCheckOutDateBefore(ReservationStatus reservationStatus, LocalDate today);
+    @Query("SELECT r.room.id AS roomId, r.checkInDate AS checkInDate, r.checkOutDate AS checkOutDate " +
+            "FROM Reservation r " +
+            "WHERE r.status NOT IN (com.reservations.hotel.models.ReservationStatus.CANCELLED, " +
+            "com.reservations.hotel.models.ReservationStatus.COMPLETED) " +
+            "AND r.checkOutDate > :from")
+    List<BookedInterval> findActiveIntervalsEndingAfter(@Param("from") LocalDate from);
+
+    @Query("SELECT r.room.id AS roomId, r.checkInDate AS checkInDate, r.checkOutDate AS checkOutDate " +
+            "FROM Reservation r " +
+            "WHERE r.room.id = :roomId " +
+            "AND r.status NOT IN (com.reservations.hotel.models.ReservationStatus.CANCELLED, " +
+            "com.reservations.hotel.models.ReservationStatus.COMPLETED) " +
+            "AND r.checkOutDate > :from")
+    List<BookedInterval> findActiveIntervalsByRoomIdEndingAfter(@Param("roomId") Long roomId, @Param("from") LocalDate from);
+
+    @Query("SELECT r.room.id AS roomId, r.checkInDate AS checkInDate, r.checkOutDate AS checkOutDate " +
+            "FROM Reservation r " +
+            "WHERE r.room.id IN :roomIds " +
+            "AND r.status NOT IN (com.reservations.hotel.models.ReservationStatus.CANCELLED, " +
+            "com.reservations.hotel.models.ReservationStatus.COMPLETED) " +
+            "AND r.checkOutDate >= :today " +
+            "ORDER BY r.checkInDate")
+    List<BookedInterval> findActiveIntervalsByRoomIds(@Param("roomIds") Collection<Long> roomIds, @Param("today") LocalDate today);
+
+    @Query("SELECT r.room.id AS roomId, r.checkInDate AS checkInDate, r.checkOutDate AS checkOutDate " +
+            "FROM Reservation r " +
+            "WHERE r.status NOT IN (com.reservations.hotel.models.ReservationStatus.CANCELLED, " +
+            "com.reservations.hotel.models.ReservationStatus.COMPLETED) " +
+            "AND r.checkInDate < :to AND r.checkOutDate > :from")
+    List<BookedInterval> findActiveIntervalsOverlapping(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT r.room.id AS roomId, r.checkInDate AS checkInDate, r.checkOutDate AS checkOutDate " +
+            "FROM Reservation r " +
+            "WHERE r.room.id IN :roomIds " +
+            "AND r.status NOT IN (com.reservations.hotel.models.ReservationStatus.CANCELLED, " +
+            "com.reservations.hotel.models.ReservationStatus.COMPLETED) " +
+            "AND r.checkInDate < :to AND r.checkOutDate > :from " +
+            "ORDER BY r.room.id, r.checkInDate")
+    List<BookedInterval> findActiveIntervalsByRoomIdsOverlapping(@Param("roomIds") Collection<Long> roomIds,
+                                                                 @Param("from") LocalDate from,
+                                                                 @Param("to") LocalDate to);
+
+    // Keyset pagination over (createdAt, id)
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.user JOIN FETCH r.room " +
+            "ORDER BY r.createdAt, r.id")
+    List<Reservation> findFirstPage(Limit limit);
+
+    @Query("SELECT r FROM Reservation r JOIN FETCH r.user JOIN FETCH r.room " +
+            "WHERE r.createdAt > :createdAt OR (r.createdAt = :createdAt AND r.id > :id) " +
+            "ORDER BY r.createdAt, r.id")
+    List<Reservation> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Limit limit);
+
+    // Forward-only cursor for exports, must be consumed inside a transaction and closed
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.reservations.hotel.dto.ReservationExportRowDto(r.id, u.email, rm.roomNumber, rm.type, " +
+            "rm.capacity, rm.pricePerNight, r.status, r.checkInDate, r.checkOutDate, r.createdAt) " +
+            "FROM Reservation r JOIN r.user u JOIN r.room rm " +
+            "ORDER BY r.id")
+    Stream<ReservationExportRowDto> streamAllForExport();
+
+    // Bounds of the confirmed stays that ended before the given date, walked in id chunks by the completion job
+    @Query("SELECT MIN(r.id) AS minId, MAX(r.id) AS maxId FROM Reservation r " +
+            "WHERE r.status = com.reservations.hotel.models.ReservationStatus.CONFIRMED " +
+            "AND r.checkOutDate < :before")
+    IdRange findCheckedOutIdRange(@Param("before") LocalDate before);
+
+    @Query("SELECT DISTINCT r.room.id FROM Reservation r " +
+            "WHERE r.id BETWEEN :fromId AND :toId " +
+            "AND r.status = com.reservations.hotel.models.ReservationStatus.CONFIRMED " +
+            "AND r.checkOutDate < :before")
+    List<Long> findCheckedOutRoomIds(@Param("fromId") Long fromId, @Param("toId") Long toId, @Param("before") LocalDate before);
+
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = com.reservations.hotel.models.ReservationStatus.COMPLETED " +
+            "WHERE r.id BETWEEN :fromId AND :toId " +
+            "AND r.status = com.reservations.hotel.models.ReservationStatus.CONFIRMED " +
+            "AND r.checkOutDate < :before")
+    int completeCheckedOut(@Param("fromId") Long fromId, @Param("toId") Long toId, @Param("before") LocalDate before);
+
+    @Query("SELECT r.id AS reservationId, r.room.id AS roomId, r.createdAt AS createdAt FROM Reservation r " +
+            "WHERE r.status = com.reservations.hotel.models.ReservationStatus.PENDING")
+    List<PendingHold> findPendingHolds();
+
+    @Query("SELECT r.id AS reservationId, r.room.id AS roomId, r.createdAt AS createdAt FROM Reservation r " +
+            "WHERE r.status = com.reservations.hotel.models.ReservationStatus.PENDING " +
+            "AND r.createdAt < :createdBefore " +
+            "ORDER BY r.createdAt")
+    List<PendingHold> findPendingHoldsCreatedBefore(@Param("createdBefore") LocalDateTime createdBefore, Limit limit);
+
+    // Holds confirmed or cancelled in the meantime are left alone
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = com.reservations.hotel.models.ReservationStatus.CANCELLED " +
+            "WHERE r.id IN :ids AND r.status = com.reservations.hotel.models.ReservationStatus.PENDING")
+    int cancelPendingHolds(@Param("ids") Collection<Long> ids);
+
+    // 0 when the hold was confirmed, cancelled or expired in the meantime; the row lock orders it against the expiry update
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = com.reservations.hotel.models.ReservationStatus.CONFIRMED " +
+            "WHERE r.id = :id AND r.status = com.reservations.hotel.models.ReservationStatus.PENDING " +
+            "AND r.createdAt > :heldSince")
+    int confirmPending(@Param("id") Long id, @Param("heldSince") LocalDateTime heldSince);
+
+    // 0 when the reservation is already cancelled or completed, or checks in before checkInFrom
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = com.reservations.hotel.models.ReservationStatus.CANCELLED " +
+            "WHERE r.id = :id AND r.status IN (com.reservations.hotel.models.ReservationStatus.PENDING, " +
+            "com.reservations.hotel.models.ReservationStatus.CONFIRMED) AND r.checkInDate >= :checkInFrom")
+    int cancelActive(@Param("id") Long id, @Param("checkInFrom") LocalDate checkInFrom);
+
+    boolean existsByIdAndUserId(Long id, Long userId);
     boolean existsByRoomIdAndStatus(Long roomId, ReservationStatus status);
 }
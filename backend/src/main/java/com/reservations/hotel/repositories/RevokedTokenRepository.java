@@ -0,0 +1,36 @@
+package com.reservations.hotel.repositories;
+
+import com.reservations.hotel.models.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    // Returns 0 if the token was already revoked, so concurrent revokes of one token have a single winner
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO revoked_tokens (jti, expires_at, revoked_at) VALUES (:jti, :expiresAt, LOCALTIMESTAMP) " +
+            "ON CONFLICT (jti) DO NOTHING", nativeQuery = true)
+    int revoke(@Param("jti") String jti, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Query("SELECT t.jti FROM RevokedToken t WHERE t.expiresAt > :now")
+    List<String> findUnexpiredIds(@Param("now") LocalDateTime now);
+
+    // Against the database clock, instances only need to agree with each other on how far back to look
+    @Query(value = "SELECT jti FROM revoked_tokens WHERE revoked_at > LOCALTIMESTAMP - make_interval(secs => :seconds)",
+            nativeQuery = true)
+    List<String> findRevokedWithin(@Param("seconds") double seconds);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM RevokedToken t WHERE t.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
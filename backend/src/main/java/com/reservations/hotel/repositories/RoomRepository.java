@@ -1,28 +1,23 @@
 package com.reservations.hotel.repositories;
 
 import com.reservations.hotel.models.Room;
-import com.reservations.hotel.models.RoomType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
-public interface RoomRepository extends JpaRepository<Room, Long> {
+public interface RoomRepository extends JpaRepository<Room, Long>, JpaSpecificationExecutor<Room> {
     Optional<Room> findById(Long roomId);
     Optional<Room> findByRoomNumber(Integer roomNumber);
-    List<Room> findRoomsByType(RoomType type);
-    List<Room> findRoomsByCapacityIsGreaterThanEqual(Integer minCapacity);
-    List<Room> findRoomsByCapacityIsGreaterThanEqualAndPricePerNightIsLessThanEqual(Integer minCapacity, Double maxPricePerNight);
-    List<Room> findRoomsByPricePerNightIsLessThanEqual(Double maxPricePerNight);
-    List<Room> findRoomsByPricePerNightBetween(Double minPricePerNight, Double maxPricePerNight);
-
-    List<Room> findRoomsByTypeAndCapacityIsGreaterThanEqualAndPricePerNightIsLessThanEqual(RoomType type, Integer minCapacity, Double maxPricePerNight);
-
-    List<Room> findRoomsByTypeAndCapacityIsGreaterThanEqual(RoomType type, Integer minCapacity);
-
-    List<Room> findRoomsByTypeAndPricePerNightIsLessThanEqual(RoomType type, Double maxPricePerNight);
 
     boolean existsByRoomNumber(Integer roomNumber);
+
+    @Query("SELECT r.roomNumber FROM Room r WHERE r.roomNumber IN :roomNumbers")
+    Set<Integer> findExistingRoomNumbers(@Param("roomNumbers") Collection<Integer> roomNumbers);
 }
@@ -0,0 +1,56 @@
+package com.reservations.hotel.repositories;
+
+import com.reservations.hotel.models.Reservation;
+import com.reservations.hotel.models.ReservationStatus;
+import com.reservations.hotel.models.Room;
+import com.reservations.hotel.models.RoomType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Search predicates for {@link RoomRepository}. Null filter values are skipped, so any combination
+ * of filters is translated into a single SQL statement.
+ */
+public final class RoomSpecifications {
+    private RoomSpecifications() {
+    }
+
+    public static Specification<Room> matching(RoomType type, Integer minCapacity, Double maxPricePerNight) {
+        return Specification.allOf(List.of(hasType(type), hasMinCapacity(minCapacity), hasMaxPricePerNight(maxPricePerNight)));
+    }
+
+    public static Specification<Room> hasType(RoomType type) {
+        return (root, query, cb) -> type == null ? null : cb.equal(root.get("type"), type);
+    }
+
+    public static Specification<Room> hasMinCapacity(Integer minCapacity) {
+        return (root, query, cb) -> minCapacity == null ? null : cb.greaterThanOrEqualTo(root.get("capacity"), minCapacity);
+    }
+
+    public static Specification<Room> hasMaxPricePerNight(Double maxPricePerNight) {
+        return (root, query, cb) -> maxPricePerNight == null ? null : cb.lessThanOrEqualTo(root.get("pricePerNight"), maxPricePerNight);
+    }
+
+    public static Specification<Room> roomNumberAfter(Integer roomNumber) {
+        return (root, query, cb) -> roomNumber == null ? null : cb.greaterThan(root.get("roomNumber"), roomNumber);
+    }
+
+    // NOT EXISTS over reservations, same overlap rule as ReservationRepository.existsConflictingReservation
+    public static Specification<Room> availableBetween(LocalDate checkInDate, LocalDate checkOutDate) {
+        return (root, query, cb) -> {
+            Subquery<Long> conflicts = query.subquery(Long.class);
+            Root<Reservation> reservation = conflicts.from(Reservation.class);
+            conflicts.select(reservation.get("id")).where(
+                    cb.equal(reservation.get("room"), root),
+                    cb.not(reservation.get("status").in(ReservationStatus.CANCELLED, ReservationStatus.COMPLETED)),
+                    cb.greaterThan(reservation.get("checkOutDate"), checkInDate),
+                    cb.lessThan(reservation.get("checkInDate"), checkOutDate)
+            );
+            return cb.not(cb.exists(conflicts));
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.reservations.hotel.services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Loads cache misses on the calling thread outside the cache's locks; other threads missing the same key wait for
+ * that load. A plain {@code Cache.get(key, loader)} runs the loader inside a {@code synchronized} block of the
+ * backing map, pinning the carrier of a virtual thread for a query and any wait for a connection.
+ */
+final class AsyncCacheLoads {
+    private AsyncCacheLoads() {
+    }
+
+    // A null or failed load leaves no entry behind
+    static <K, V> V get(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> created);
+        if (future == created) {
+            try {
+                created.complete(loader.apply(key));
+            } catch (RuntimeException ex) {
+                created.completeExceptionally(ex);
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
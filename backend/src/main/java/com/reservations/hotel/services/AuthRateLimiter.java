@@ -0,0 +1,102 @@
+package com.reservations.hotel.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.reservations.hotel.exceptions.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * Token bucket limits on the unauthenticated auth endpoints, checked before any password hashing or database
+ * work. Every client IP has one bucket shared by login, registration, verification and resend; login, verify
+ * and resend also have a bucket per email address, which caps password guessing and verification code guessing
+ * against one account however many addresses the attacker uses. Buckets live in a bounded cache and are dropped
+ * once idle for their refill period, by which time they would be full anyway.
+ */
+@Service
+@Slf4j
+public class AuthRateLimiter {
+    public enum Endpoint {
+        LOGIN, REGISTER, VERIFY, RESEND
+    }
+
+    private record Limit(int capacity, Duration period) {
+    }
+
+    private final boolean enabled;
+    private final Limit perIp;
+    private final Limit login;
+    private final Limit verify;
+    private final Limit resend;
+    private final Cache<String, TokenBucket> buckets;
+    private final MeterRegistry meterRegistry;
+
+    public AuthRateLimiter(MeterRegistry meterRegistry,
+                           @Value("${hotel.rate-limit.enabled}") boolean enabled,
+                           @Value("${hotel.rate-limit.max-buckets}") long maxBuckets,
+                           @Value("${hotel.rate-limit.ip.capacity}") int ipCapacity,
+                           @Value("${hotel.rate-limit.ip.period}") Duration ipPeriod,
+                           @Value("${hotel.rate-limit.login.capacity}") int loginCapacity,
+                           @Value("${hotel.rate-limit.login.period}") Duration loginPeriod,
+                           @Value("${hotel.rate-limit.verify.capacity}") int verifyCapacity,
+                           @Value("${hotel.rate-limit.verify.period}") Duration verifyPeriod,
+                           @Value("${hotel.rate-limit.resend.capacity}") int resendCapacity,
+                           @Value("${hotel.rate-limit.resend.period}") Duration resendPeriod) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.perIp = new Limit(ipCapacity, ipPeriod);
+        this.login = new Limit(loginCapacity, loginPeriod);
+        this.verify = new Limit(verifyCapacity, verifyPeriod);
+        this.resend = new Limit(resendCapacity, resendPeriod);
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxBuckets)
+                .expireAfter(Expiry.<String, TokenBucket>accessing((key, bucket) -> bucket.period()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "auth.rateLimitBuckets");
+    }
+
+    /**
+     * Takes a token from the client's IP bucket and, for endpoints limited per account, the email's bucket.
+     *
+     * @throws RateLimitExceededException with the time until a retry can succeed
+     */
+    public void check(Endpoint endpoint, String clientIp, String email) {
+        if (!enabled) {
+            return;
+        }
+        take(endpoint, "ip", "ip:" + clientIp, perIp);
+        Limit perEmail = switch (endpoint) {
+            case LOGIN -> login;
+            case VERIFY -> verify;
+            case RESEND -> resend;
+            case REGISTER -> null;
+        };
+        if (perEmail != null && email != null) {
+            take(endpoint, "email", endpoint.name() + ":" + email.trim().toLowerCase(Locale.ROOT), perEmail);
+        }
+    }
+
+    private void take(Endpoint endpoint, String scope, String key, Limit limit) {
+        long now = System.nanoTime();
+        long waitNanos = buckets.get(key, k -> new TokenBucket(limit.capacity(), limit.period(), now)).tryConsume(now);
+        if (waitNanos > 0) {
+            Counter.builder("auth.rate_limited")
+                    .description("Auth requests refused by the rate limiter")
+                    .tag("endpoint", endpoint.name().toLowerCase(Locale.ROOT))
+                    .tag("scope", scope)
+                    .register(meterRegistry)
+                    .increment();
+            log.debug("Rate limit exceeded for {} on {} by {}", scope, endpoint, key);
+            throw new RateLimitExceededException("Too many requests, try again later", Duration.ofNanos(waitNanos));
+        }
+    }
+}
@@ -7,13 +7,12 @@ import com.reservations.hotel.dto.VerifyDto;
 import com.reservations.hotel.exceptions.*;
 import com.reservations.hotel.models.User;
 import com.reservations.hotel.repositories.UserRepository;
-import jakarta.mail.MessagingException;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
@@ -26,15 +25,17 @@ public class AuthService {
     private final UserRepository userRepository;
     private final EmailService emailService;
     private final PasswordEncoder passwordEncoder;
-    private final AuthenticationManager authenticationManager;
+    private final TransactionTemplate transactionTemplate;
 
-    public AuthService(UserRepository userRepository, EmailService emailService, PasswordEncoder passwordEncoder, AuthenticationManager authenticationManager) {
+    public AuthService(UserRepository userRepository, EmailService emailService, PasswordEncoder passwordEncoder, TransactionTemplate transactionTemplate) {
         this.userRepository = userRepository;
         this.emailService = emailService;
         this.passwordEncoder = passwordEncoder;
-        this.authenticationManager = authenticationManager;
+        this.transactionTemplate = transactionTemplate;
     }
 
+    // The verification email is queued in the same transaction as the user. The password is hashed before that
+    // transaction, so a request waiting for a hashing thread does not hold a database connection.
     public UserResponseDto registerUser(@Valid RegisterDto input) {
         log.info("Registering user with email: {}", input.getEmail());
         // Check if the user already exists
@@ -42,16 +43,23 @@ public class AuthService {
             log.warn("User with email {} already exists", input.getEmail());
             throw new UserAlreadyExistsException("User with this email already exists");
         }
-        User newUser = new User(input.getEmail(), passwordEncoder.encode(input.getPassword()));
-        newUser.setVerificationCode(generateVerificationCode());
-        newUser.setVerificationExpiration(LocalDateTime.now().plusMinutes(EXPIRATION_TIME_MINUTES));
-        newUser.setEnabled(false);
-        sendVerificationEmail(newUser);
-        User registeredUser = userRepository.save(newUser);
-        log.debug("User registered successfully: {}", newUser);
-        return new UserResponseDto(registeredUser);
+        String encodedPassword = passwordEncoder.encode(input.getPassword());
+        return transactionTemplate.execute(status -> {
+            User newUser = new User(input.getEmail(), encodedPassword);
+            newUser.setVerificationCode(generateVerificationCode());
+            newUser.setVerificationExpiration(LocalDateTime.now().plusMinutes(EXPIRATION_TIME_MINUTES));
+            newUser.setEnabled(false);
+            User registeredUser = userRepository.save(newUser);
+            sendVerificationEmail(registeredUser);
+            log.debug("User registered successfully: {}", newUser);
+            return new UserResponseDto(registeredUser);
+        });
     }
 
+    /**
+     * Checks the password against the user loaded here, with one query and one hash, and returns that user for
+     * issuing tokens. A hash made with a lower cost than the current one is replaced by a fresh one.
+     */
     public User authenticate(LoginDto input) {
         log.info("Authenticating user with email: {}", input.getEmail());
         User user = userRepository.findByEmail(input.getEmail())
@@ -63,13 +71,32 @@ public class AuthService {
             log.warn("Login Failed - User with email {} is not verified", input.getEmail());
             throw new UserNotVerifiedException("User account is not verified. Please check your email for verification link.");
         }
-        authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(input.getEmail(), input.getPassword())
-        );
+        if (!passwordEncoder.matches(input.getPassword(), user.getPassword())) {
+            log.warn("Login failed - Invalid password for user with email {}", input.getEmail());
+            throw new InvalidCredentialsException("Invalid email or password");
+        }
+        upgradePasswordHash(user, input.getPassword());
         log.debug("User authenticated successfully: {}", user);
         return user;
     }
 
+    private void upgradePasswordHash(User user, String rawPassword) {
+        String oldHash = user.getPassword();
+        if (!passwordEncoder.upgradeEncoding(oldHash)) {
+            return;
+        }
+        try {
+            String newHash = passwordEncoder.encode(rawPassword);
+            if (userRepository.updatePassword(user.getId(), oldHash, newHash) > 0) {
+                user.setPassword(newHash);
+                log.info("Upgraded password hash for user with ID: {}", user.getId());
+            }
+        } catch (HashingCapacityExceededException e) {
+            // The login already succeeded, the upgrade waits for a quieter moment
+            log.debug("Skipped password hash upgrade for user with ID: {}, hashing is saturated", user.getId());
+        }
+    }
+
     public void verifyUser(VerifyDto input) {
         log.info("Verifying user with email: {}", input.getEmail());
         Optional<User> userOptional = userRepository.findByEmail(input.getEmail());
@@ -98,6 +125,7 @@ public class AuthService {
             throw new UserNotFoundException("User not found with email: " + input.getEmail());
         }
     }
+    @Transactional
     public void resendVerificationCode(String email) {
         log.info("Resending verification code to email: {}", email);
         Optional<User> userOptional = userRepository.findByEmail(email);
@@ -109,8 +137,8 @@ public class AuthService {
             }
             user.setVerificationCode(generateVerificationCode());
             user.setVerificationExpiration(LocalDateTime.now().plusMinutes(15));
-            sendVerificationEmail(user);
             userRepository.save(user);
+            sendVerificationEmail(user);
             log.info("Verification code resent successfully to email: {}", email);
         } else {
             log.warn("Resend Verification Failed - User with email {} not found", email);
@@ -119,7 +147,7 @@ public class AuthService {
     }
 
     public void sendVerificationEmail(User user) {
-        log.info("Sending verification email to: {}", user.getEmail());
+        log.info("Queueing verification email to: {}", user.getEmail());
         String subject = "Account Verification";
         String verificationCode = user.getVerificationCode();
         String htmlMessage = "<html>"
@@ -135,12 +163,7 @@ public class AuthService {
                 + "</body>"
                 + "</html>";
 
-        try{
-            emailService.sendVerificationEmail(user.getEmail(), subject, htmlMessage);
-            log.info("Verification email sent to: {}", user.getEmail());
-        } catch (MessagingException e) {
-            log.error("Failed to send verification email to: {}", user.getEmail(), e);
-        }
+        emailService.queueEmail(user.getEmail(), subject, htmlMessage);
     }
 
 
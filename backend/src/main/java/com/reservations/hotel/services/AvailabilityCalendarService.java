@@ -0,0 +1,86 @@
+package com.reservations.hotel.services;
+
+import com.reservations.hotel.dto.AvailabilityCalendarDto;
+import com.reservations.hotel.dto.RoomCalendarDto;
+import com.reservations.hotel.exceptions.InvalidSearchParametersException;
+import com.reservations.hotel.models.Room;
+import com.reservations.hotel.models.RoomType;
+import com.reservations.hotel.repositories.BookedInterval;
+import com.reservations.hotel.repositories.ReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-room, per-night occupancy grid. All reservations overlapping the range are read with one query and turned
+ * into occupancy with a difference array per room: +1 on the first night, -1 after the last, then a single prefix sweep.
+ */
+@Service
+@Slf4j
+public class AvailabilityCalendarService {
+    private final ReservationRepository reservationRepository;
+    private final RoomCatalogCache roomCatalogCache;
+    private final int maxDays;
+
+    public AvailabilityCalendarService(ReservationRepository reservationRepository,
+                                       RoomCatalogCache roomCatalogCache,
+                                       @Value("${hotel.availability.calendar-max-days}") int maxDays) {
+        this.reservationRepository = reservationRepository;
+        this.roomCatalogCache = roomCatalogCache;
+        this.maxDays = maxDays;
+    }
+
+    public AvailabilityCalendarDto getCalendar(LocalDate from, LocalDate to, RoomType type) {
+        if (!from.isBefore(to)) {
+            throw new InvalidSearchParametersException("from must be before to");
+        }
+        int nights = (int) (to.toEpochDay() - from.toEpochDay());
+        if (nights > maxDays) {
+            throw new InvalidSearchParametersException("Calendar range cannot exceed " + maxDays + " days");
+        }
+        List<Room> rooms = roomCatalogCache.getAll().stream()
+                .filter(room -> type == null || room.getType() == type)
+                .toList();
+
+        Map<Long, int[]> deltas = new HashMap<>();
+        List<BookedInterval> intervals = reservationRepository.findActiveIntervalsOverlapping(from, to);
+        for (BookedInterval interval : intervals) {
+            int[] delta = deltas.computeIfAbsent(interval.getRoomId(), id -> new int[nights + 1]);
+            delta[(int) Math.max(0, interval.getCheckInDate().toEpochDay() - from.toEpochDay())]++;
+            delta[(int) Math.min(nights, interval.getCheckOutDate().toEpochDay() - from.toEpochDay())]--;
+        }
+        log.debug("Availability calendar {} - {}: {} reservations over {} rooms", from, to, intervals.size(), rooms.size());
+
+        String allFree = "F" + nights;
+        List<RoomCalendarDto> calendar = rooms.stream()
+                .map(room -> {
+                    int[] delta = deltas.get(room.getId());
+                    return new RoomCalendarDto(room, delta == null ? allFree : encode(delta, nights));
+                })
+                .toList();
+        return new AvailabilityCalendarDto(from, to, calendar);
+    }
+
+    private static String encode(int[] delta, int nights) {
+        StringBuilder runs = new StringBuilder();
+        int bookings = 0;
+        boolean runOccupied = false;
+        int runLength = 0;
+        for (int night = 0; night < nights; night++) {
+            bookings += delta[night];
+            boolean occupied = bookings > 0;
+            if (runLength > 0 && occupied != runOccupied) {
+                runs.append(runOccupied ? 'O' : 'F').append(runLength);
+                runLength = 0;
+            }
+            runOccupied = occupied;
+            runLength++;
+        }
+        return runs.append(runOccupied ? 'O' : 'F').append(runLength).toString();
+    }
+}
@@ -0,0 +1,78 @@
+package com.reservations.hotel.services;
+
+import com.reservations.hotel.events.ReservationChangedEvent;
+import com.reservations.hotel.events.RoomCatalogRevisedEvent;
+import com.reservations.hotel.events.RoomChangedEvent;
+import com.reservations.hotel.repositories.CatalogRevisionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version stamp of everything rendered by the room listings: room metadata and booked dates.
+ * The counter only grows and is bumped after every committed room or reservation change. The instance epoch
+ * keeps tags from a previous run from matching after a restart, and the date covers booked dates rolling off at midnight.
+ * <p>
+ * Room changes also bump the shared {@code rooms} revision in {@code catalog_revisions} within their transaction;
+ * polling it every {@code hotel.cache.rooms.sync-interval-ms} brings in room changes made on other instances, and
+ * {@link RoomCatalogCache} is emptied before the tag moves. Reservations made on other instances show up through
+ * the {@link RoomAvailabilityIndex} rebuild.
+ */
+@Component
+@Slf4j
+public class CatalogVersion {
+    static final String ROOMS = "rooms";
+    private final CatalogRevisionRepository catalogRevisionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong counter = new AtomicLong();
+    private volatile long roomsRevision = -1; // last polled, the first poll always counts as a change
+
+    public CatalogVersion(CatalogRevisionRepository catalogRevisionRepository, ApplicationEventPublisher eventPublisher) {
+        this.catalogRevisionRepository = catalogRevisionRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    // Runs inside the publishing transaction, other instances see the revision once the change commits
+    @EventListener
+    public void recordRoomChange(RoomChangedEvent event) {
+        catalogRevisionRepository.bump(ROOMS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomChanged(RoomChangedEvent event) {
+        bump();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        bump();
+    }
+
+    @Scheduled(fixedDelayString = "${hotel.cache.rooms.sync-interval-ms}")
+    public void sync() {
+        long revision = catalogRevisionRepository.findRevision(ROOMS).orElse(0L);
+        if (revision != roomsRevision) {
+            roomsRevision = revision;
+            // Listeners run synchronously, a request reading the new tag cannot get rooms cached before the change
+            eventPublisher.publishEvent(new RoomCatalogRevisedEvent(revision));
+            bump();
+            log.debug("Room catalog revision {} picked up", revision);
+        }
+    }
+
+    public void bump() {
+        counter.incrementAndGet();
+    }
+
+    // Must be read before the response body is built, a stale tag only costs one extra full response
+    public String etag() {
+        return "\"" + Long.toString(epoch, 36) + "-" + LocalDate.now().toEpochDay() + "-" + counter.get() + "\"";
+    }
+}
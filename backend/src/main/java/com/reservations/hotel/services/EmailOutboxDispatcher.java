@@ -0,0 +1,241 @@
+package com.reservations.hotel.services;
+
+import com.reservations.hotel.models.EmailOutbox;
+import com.reservations.hotel.models.EmailStatus;
+import com.reservations.hotel.repositories.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends queued emails from {@code email_outbox}. Every instance polls; a batch is claimed with
+ * {@code FOR UPDATE SKIP LOCKED} and hidden from other dispatchers for the claim timeout, then sent outside the
+ * transaction over one pooled SMTP connection, so no database connection is held during SMTP. Failed sends are
+ * retried with exponential backoff and marked DEAD after the maximum number of attempts. Delivery is at least
+ * once: a dispatcher that dies mid-batch leaves its claim to run out and the batch is sent again.
+ * <p>
+ * Polling and eviction of idle SMTP connections run on a platform thread of the dispatcher's own rather than on
+ * the shared scheduler. JavaMail holds a monitor for the whole SMTP exchange, which on Java 21 would pin the
+ * carrier of a virtual thread when {@code spring.threads.virtual.enabled} is on.
+ * <p>
+ * SENT and DEAD rows are deleted once older than their retention by one instance at a time.
+ */
+@Service
+@Slf4j
+public class EmailOutboxDispatcher {
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final String PURGE_JOB_NAME = "email.outbox-purge";
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final EmailService emailService;
+    private final SmtpTransportPool smtpTransportPool;
+    private final TransactionTemplate transactionTemplate;
+    private final JobLockService jobLockService;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration maxBackoff;
+    private final Duration claimTimeout;
+    private final Duration sentRetention;
+    private final Duration deadRetention;
+    private final AtomicLong depth = new AtomicLong();
+    private final Timer deliveryLag;
+    private final long pollIntervalMs;
+    private final long evictIntervalMs;
+    private final long depthIntervalMs;
+    private volatile ScheduledExecutorService scheduler;
+
+    public EmailOutboxDispatcher(EmailOutboxRepository emailOutboxRepository,
+                                 EmailService emailService,
+                                 SmtpTransportPool smtpTransportPool,
+                                 TransactionTemplate transactionTemplate,
+                                 JobLockService jobLockService,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${hotel.email.outbox.poll-interval-ms}") long pollIntervalMs,
+                                 @Value("${hotel.email.smtp.pool.evict-interval-ms}") long evictIntervalMs,
+                                 @Value("${hotel.email.outbox.depth-interval-ms}") long depthIntervalMs,
+                                 @Value("${hotel.email.outbox.batch-size}") int batchSize,
+                                 @Value("${hotel.email.outbox.max-attempts}") int maxAttempts,
+                                 @Value("${hotel.email.outbox.retry-backoff}") Duration retryBackoff,
+                                 @Value("${hotel.email.outbox.max-backoff}") Duration maxBackoff,
+                                 @Value("${hotel.email.outbox.claim-timeout}") Duration claimTimeout,
+                                 @Value("${hotel.email.outbox.sent-retention}") Duration sentRetention,
+                                 @Value("${hotel.email.outbox.dead-retention}") Duration deadRetention) {
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.emailService = emailService;
+        this.smtpTransportPool = smtpTransportPool;
+        this.transactionTemplate = transactionTemplate;
+        this.jobLockService = jobLockService;
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.maxBackoff = maxBackoff;
+        this.claimTimeout = claimTimeout;
+        this.sentRetention = sentRetention;
+        this.deadRetention = deadRetention;
+        this.pollIntervalMs = pollIntervalMs;
+        this.evictIntervalMs = evictIntervalMs;
+        this.depthIntervalMs = depthIntervalMs;
+        Gauge.builder("email.outbox.depth", depth, AtomicLong::get)
+                .description("PENDING emails in the outbox as of the last count")
+                .register(meterRegistry);
+        this.deliveryLag = Timer.builder("email.outbox.delivery.lag")
+                .description("Time from queueing an email to sending it")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "email-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(() -> runLogged("poll the email outbox", this::dispatch),
+                0, pollIntervalMs, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(() -> runLogged("count queued emails", this::refreshDepth),
+                0, depthIntervalMs, TimeUnit.MILLISECONDS);
+        executor.scheduleWithFixedDelay(() -> runLogged("evict idle SMTP connections", smtpTransportPool::evictIdle),
+                evictIntervalMs, evictIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler = executor;
+    }
+
+    @PreDestroy
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        scheduler = null;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    // Counting scans every PENDING row, so it runs less often than the poll
+    public void refreshDepth() {
+        depth.set(emailOutboxRepository.countByStatus(EmailStatus.PENDING));
+    }
+
+    // A plain delete with no SMTP, so it can run on the shared scheduler
+    @Scheduled(fixedDelayString = "${hotel.email.outbox.purge-interval-ms}",
+            initialDelayString = "${hotel.email.outbox.purge-interval-ms}")
+    public void purge() {
+        jobLockService.runExclusive(PURGE_JOB_NAME, () -> {
+            LocalDateTime now = LocalDateTime.now();
+            log.info("Purged {} sent or dead emails from the outbox",
+                    emailOutboxRepository.deleteFinished(now.minus(sentRetention), now.minus(deadRetention)));
+        });
+    }
+
+    /**
+     * Sends due emails until none are left.
+     *
+     * @return number of emails attempted
+     */
+    public int dispatch() {
+        int attempted = 0;
+        List<EmailOutbox> batch;
+        do {
+            batch = claimBatch();
+            deliver(batch);
+            attempted += batch.size();
+        } while (batch.size() == batchSize);
+        if (attempted > 0) {
+            log.debug("Dispatched {} queued emails", attempted);
+        }
+        return attempted;
+    }
+
+    // A task that throws is not run again by the executor, so failures are logged and the next run goes ahead
+    private static void runLogged(String description, Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException ex) {
+            log.error("Could not {}", description, ex);
+        }
+    }
+
+    private List<EmailOutbox> claimBatch() {
+        List<EmailOutbox> batch = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<EmailOutbox> due = emailOutboxRepository.lockDue(now, batchSize);
+            if (!due.isEmpty()) {
+                emailOutboxRepository.claim(due.stream().map(EmailOutbox::getId).toList(), now.plus(claimTimeout));
+            }
+            return due;
+        });
+        return batch == null ? List.of() : batch;
+    }
+
+    private void deliver(List<EmailOutbox> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<Long, MessagingException> failures = emailService.sendBatch(batch);
+        List<Long> sent = new ArrayList<>(batch.size());
+        for (EmailOutbox email : batch) {
+            MessagingException failure = failures.get(email.getId());
+            if (failure == null) {
+                sent.add(email.getId());
+            } else {
+                recordFailure(email, failure);
+            }
+        }
+        if (!sent.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            emailOutboxRepository.markSent(sent, now);
+            batch.stream().filter(email -> !failures.containsKey(email.getId()))
+                    .forEach(email -> deliveryLag.record(Duration.between(email.getCreatedAt(), now)));
+            outcomes("sent").increment(sent.size());
+        }
+    }
+
+    private void recordFailure(EmailOutbox email, Exception ex) {
+        int attempts = email.getAttempts() + 1;
+        String error = ex.getMessage() == null ? ex.getClass().getName() : ex.getMessage();
+        error = error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        if (attempts >= maxAttempts) {
+            log.error("Giving up on email {} to {} after {} attempts", email.getId(), email.getRecipient(), attempts, ex);
+            emailOutboxRepository.recordFailure(email.getId(), EmailStatus.DEAD, attempts, LocalDateTime.now(), error);
+            outcomes("dead").increment();
+        } else {
+            Duration delay = backoff(attempts);
+            log.warn("Sending email {} to {} failed (attempt {}), retrying in {}: {}", email.getId(), email.getRecipient(), attempts, delay, error);
+            emailOutboxRepository.recordFailure(email.getId(), EmailStatus.PENDING, attempts, LocalDateTime.now().plus(delay), error);
+            outcomes("retry").increment();
+        }
+    }
+
+    // retry-backoff doubled for every further failure, capped at max-backoff
+    private Duration backoff(int attempts) {
+        int doublings = Math.min(attempts - 1, 30);
+        Duration delay = retryBackoff.multipliedBy(1L << doublings);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    private Counter outcomes(String outcome) {
+        return Counter.builder("email.outbox.outcomes")
+                .description("Emails sent, rescheduled or dead-lettered by the dispatcher")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
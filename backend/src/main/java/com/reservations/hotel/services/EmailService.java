@@ -1,28 +1,127 @@
 package com.reservations.hotel.services;
 
+import com.reservations.hotel.models.EmailOutbox;
+import com.reservations.hotel.repositories.EmailOutboxRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Transport;
 import jakarta.mail.internet.MimeMessage;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 @Slf4j
 public class EmailService {
-    private final JavaMailSender emailSender;
+    private final SmtpTransportPool transportPool;
+    private final EmailOutboxRepository emailOutboxRepository;
+    private final MeterRegistry meterRegistry;
+
+    public EmailService(SmtpTransportPool transportPool, EmailOutboxRepository emailOutboxRepository, MeterRegistry meterRegistry) {
+        this.transportPool = transportPool;
+        this.emailOutboxRepository = emailOutboxRepository;
+        this.meterRegistry = meterRegistry;
+    }
 
-    public EmailService(JavaMailSender emailSender) {
-        this.emailSender = emailSender;
+    /**
+     * Adds the email to the outbox in the caller's transaction; it is sent after commit by the dispatcher, so no
+     * SMTP traffic happens on the request thread and a rolled back change sends nothing.
+     */
+    @Transactional
+    public void queueEmail(String to, String subject, String htmlMessage) {
+        EmailOutbox email = emailOutboxRepository.save(new EmailOutbox(to, subject, htmlMessage));
+        log.info("Queued email {} to: {}", email.getId(), to);
     }
 
-    public void sendVerificationEmail(String to, String subject, String htmlMessage) throws MessagingException {
-        log.info("Sending verification email to: {}", to);
-        MimeMessage message = emailSender.createMimeMessage();
+    /**
+     * Sends the emails one after another over a single pooled connection. An email that hits a connection level
+     * error is retried once on a new connection; if none can be had, the rest of the batch fails without trying.
+     *
+     * @return failures by email id, empty if everything was sent
+     */
+    public Map<Long, MessagingException> sendBatch(List<EmailOutbox> emails) {
+        Map<Long, MessagingException> failures = new HashMap<>();
+        Transport transport = null;
+        MessagingException unavailable = null;
+        try {
+            for (EmailOutbox email : emails) {
+                if (unavailable != null) {
+                    failures.put(email.getId(), unavailable);
+                    continue;
+                }
+                Timer.Sample sample = Timer.start(meterRegistry);
+                MessagingException failure = null;
+                MimeMessage message;
+                try {
+                    message = toMimeMessage(email);
+                } catch (MessagingException e) {
+                    sample.stop(sendTimer("failed"));
+                    failures.put(email.getId(), e);
+                    continue;
+                }
+                for (int attempt = 1; ; attempt++) {
+                    try {
+                        if (transport == null) {
+                            transport = transportPool.borrow();
+                        }
+                    } catch (MessagingException e) {
+                        unavailable = failure = e;
+                        break;
+                    }
+                    try {
+                        transport.sendMessage(message, message.getAllRecipients());
+                        break;
+                    } catch (MessagingException e) {
+                        // Refused by the server, unless the connection is gone which can also surface this way
+                        if (e instanceof SendFailedException && transport.isConnected()) {
+                            failure = e;
+                            break;
+                        }
+                        // The server may have dropped a pooled connection since it was last checked
+                        log.debug("SMTP connection failed sending email {} (attempt {}): {}", email.getId(), attempt, e.getMessage());
+                        transportPool.release(transport, true);
+                        transport = null;
+                        if (attempt == 2) {
+                            failure = e;
+                            break;
+                        }
+                    }
+                }
+                sample.stop(sendTimer(failure == null ? "sent" : "failed"));
+                if (failure != null) {
+                    failures.put(email.getId(), failure);
+                }
+            }
+        } finally {
+            if (transport != null) {
+                transportPool.release(transport, false);
+            }
+        }
+        log.debug("Sent {} of {} emails", emails.size() - failures.size(), emails.size());
+        return failures;
+    }
+
+    private MimeMessage toMimeMessage(EmailOutbox email) throws MessagingException {
+        MimeMessage message = new MimeMessage(transportPool.session());
         MimeMessageHelper helper = new MimeMessageHelper(message, true);
-        helper.setTo(to);
-        helper.setSubject(subject);
-        helper.setText(htmlMessage, true); // true for HTML content
-        emailSender.send(message);
+        helper.setTo(email.getRecipient());
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody(), true); // true for HTML content
+        message.saveChanges();
+        return message;
+    }
+
+    private Timer sendTimer(String outcome) {
+        return Timer.builder("email.send.duration")
+                .description("Time spent sending one email over SMTP")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 }
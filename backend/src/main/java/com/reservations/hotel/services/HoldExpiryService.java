@@ -0,0 +1,195 @@
+package com.reservations.hotel.services;
+
+import com.reservations.hotel.events.ReservationChangedEvent;
+import com.reservations.hotel.events.ReservationHeldEvent;
+import com.reservations.hotel.repositories.PendingHold;
+import com.reservations.hotel.repositories.ReservationRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancels PENDING reservations that were not confirmed within {@code hotel.reservations.hold-ttl}, so abandoned
+ * checkouts stop blocking their room. Holds wait in a delay queue loaded from the database at startup and fed by
+ * new bookings; a worker thread releases them as they fall due, in batched updates. Holds made on another instance
+ * that died are caught by an infrequent sweep.
+ */
+@Service
+@Slf4j
+public class HoldExpiryService {
+    private static final String SWEEP_JOB_NAME = "reservations.hold-expiry";
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(5);
+    private final ReservationRepository reservationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JobLockService jobLockService;
+    private final Duration holdTtl;
+    private final int batchSize;
+    private final DelayQueue<Hold> holds = new DelayQueue<>();
+    private final Counter expired;
+    private volatile Thread worker;
+
+    private record Hold(Long reservationId, Long roomId, long expiresAtNanos) implements Delayed {
+        static Hold of(Long reservationId, Long roomId, LocalDateTime expiresAt) {
+            return new Hold(reservationId, roomId, System.nanoTime() + Duration.between(LocalDateTime.now(), expiresAt).toNanos());
+        }
+
+        Hold retryAfter(Duration delay) {
+            return new Hold(reservationId, roomId, System.nanoTime() + delay.toNanos());
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(expiresAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(expiresAtNanos, ((Hold) other).expiresAtNanos);
+        }
+    }
+
+    public HoldExpiryService(ReservationRepository reservationRepository,
+                             TransactionTemplate transactionTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             JobLockService jobLockService,
+                             MeterRegistry meterRegistry,
+                             @Value("${hotel.reservations.hold-ttl}") Duration holdTtl,
+                             @Value("${hotel.reservations.hold-expiry.batch-size}") int batchSize) {
+        this.reservationRepository = reservationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.jobLockService = jobLockService;
+        this.holdTtl = holdTtl;
+        this.batchSize = batchSize;
+        this.expired = Counter.builder("reservations.holds.expired")
+                .description("PENDING reservations cancelled after the hold TTL")
+                .register(meterRegistry);
+        Gauge.builder("reservations.holds.tracked", holds, DelayQueue::size)
+                .description("PENDING reservations waiting for expiry on this instance")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        rebuild();
+        Thread thread = new Thread(this::run, "hold-expiry");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        Thread thread = worker;
+        worker = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    public void rebuild() {
+        List<PendingHold> pending = reservationRepository.findPendingHolds();
+        for (PendingHold hold : pending) {
+            holds.add(Hold.of(hold.getReservationId(), hold.getRoomId(), hold.getCreatedAt().plus(holdTtl)));
+        }
+        log.info("Tracking {} pending reservation holds", pending.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationHeld(ReservationHeldEvent event) {
+        holds.add(Hold.of(event.reservationId(), event.roomId(), event.createdAt().plus(holdTtl)));
+    }
+
+    /**
+     * Releases every hold that is already due without waiting for the worker.
+     *
+     * @return number of reservations cancelled
+     */
+    public int releaseDueHolds() {
+        int released = 0;
+        Hold first;
+        while ((first = holds.poll()) != null) {
+            released += releaseBatch(first);
+        }
+        return released;
+    }
+
+    // Catches holds tracked only by an instance that is gone, the queue handles everything else
+    @Scheduled(fixedDelayString = "${hotel.reservations.hold-expiry.sweep-interval-ms}",
+            initialDelayString = "${hotel.reservations.hold-expiry.sweep-interval-ms}")
+    public void sweep() {
+        jobLockService.runExclusive(SWEEP_JOB_NAME, () -> {
+            int released = 0;
+            List<PendingHold> stale;
+            do {
+                stale = reservationRepository.findPendingHoldsCreatedBefore(LocalDateTime.now().minus(holdTtl), Limit.of(batchSize));
+                List<Hold> batch = stale.stream()
+                        .map(hold -> new Hold(hold.getReservationId(), hold.getRoomId(), 0))
+                        .toList();
+                released += batch.isEmpty() ? 0 : cancel(batch);
+            } while (stale.size() == batchSize);
+            log.info("Hold expiry sweep cancelled {} reservations", released);
+        });
+    }
+
+    private void run() {
+        while (worker == Thread.currentThread()) {
+            try {
+                releaseBatch(holds.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Takes whatever else is due along with the first hold, up to one batch
+    private int releaseBatch(Hold first) {
+        List<Hold> batch = new ArrayList<>(Math.min(batchSize, holds.size() + 1));
+        batch.add(first);
+        holds.drainTo(batch, batchSize - 1);
+        try {
+            return cancel(batch);
+        } catch (RuntimeException ex) {
+            log.warn("Could not release {} expired holds, retrying in {}", batch.size(), RETRY_DELAY, ex);
+            batch.forEach(hold -> holds.add(hold.retryAfter(RETRY_DELAY)));
+            return 0;
+        }
+    }
+
+    private int cancel(List<Hold> batch) {
+        Integer cancelled = transactionTemplate.execute(status -> {
+            int updated = reservationRepository.cancelPendingHolds(batch.stream().map(Hold::reservationId).toList());
+            if (updated > 0) {
+                // Rooms of holds confirmed in the meantime are refreshed needlessly, which is harmless
+                batch.stream().map(Hold::roomId).distinct()
+                        .forEach(roomId -> eventPublisher.publishEvent(new ReservationChangedEvent(roomId)));
+            }
+            return updated;
+        });
+        int released = cancelled == null ? 0 : cancelled;
+        expired.increment(released);
+        log.debug("Released {} of {} expired reservation holds", released, batch.size());
+        return released;
+    }
+}
@@ -0,0 +1,215 @@
+package com.reservations.hotel.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reservations.hotel.exceptions.IdempotencyKeyInProgressException;
+import com.reservations.hotel.exceptions.IdempotencyKeyReusedException;
+import com.reservations.hotel.exceptions.InvalidSearchParametersException;
+import com.reservations.hotel.models.IdempotencyRecord;
+import com.reservations.hotel.repositories.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per {@code Idempotency-Key} and replays the stored response byte for byte.
+ * <p>
+ * Completed responses live in the {@code idempotency_keys} table for {@code hotel.idempotency.ttl}, fronted by
+ * a bounded in-memory cache. Duplicates arriving while the first request is still running on this instance wait
+ * for its result; on another instance they are told to retry. A key reused with a different request body is rejected.
+ * Failed requests release their key so the client can retry.
+ * <p>
+ * The request runs in one transaction with the write of its response, so a booking is never committed while its
+ * key still looks unfinished. A claim left unfinished past the in-flight timeout therefore had nothing committed
+ * and may run again; if its original request does finish later, it finds the key taken and rolls back.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+    private static final int MAX_KEY_LENGTH = 255;
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Duration inFlightTimeout;
+    private final Cache<String, Completed> completed;
+    private final ConcurrentHashMap<String, CompletableFuture<Completed>> inFlight = new ConcurrentHashMap<>();
+
+    public record StoredResponse(int status, byte[] body) {
+    }
+
+    private record Completed(String requestHash, StoredResponse response) {
+    }
+
+    public IdempotencyService(IdempotencyRecordRepository repository,
+                              ObjectMapper objectMapper,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${hotel.idempotency.ttl}") Duration ttl,
+                              @Value("${hotel.idempotency.in-flight-timeout}") Duration inFlightTimeout,
+                              @Value("${hotel.idempotency.cache-size}") long cacheSize) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = ttl;
+        this.inFlightTimeout = inFlightTimeout;
+        this.completed = Caffeine.newBuilder().maximumSize(cacheSize).expireAfterWrite(ttl).recordStats().build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "idempotency.responses");
+    }
+
+    /**
+     * @param scope       owner of the key, keys of different users never collide
+     * @param requestHash {@link #hash} of the request, must match for a replay
+     */
+    public StoredResponse execute(String scope, String key, String requestHash, Supplier<StoredResponse> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new InvalidSearchParametersException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + ":" + key;
+        Completed cached = completed.getIfPresent(id);
+        if (cached != null) {
+            return replay(id, cached, requestHash);
+        }
+        CompletableFuture<Completed> mine = new CompletableFuture<>();
+        CompletableFuture<Completed> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            return replay(id, await(running), requestHash);
+        }
+        try {
+            Completed result = executeOnce(id, requestHash, action);
+            completed.put(id, result);
+            mine.complete(result);
+            return replay(id, result, requestHash);
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    public StoredResponse json(int status, Object body) {
+        try {
+            return new StoredResponse(status, objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Response could not be serialized", e);
+        }
+    }
+
+    public String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Request could not be hashed", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${hotel.idempotency.cleanup-interval-ms}",
+            initialDelayString = "${hotel.idempotency.cleanup-interval-ms}")
+    public void deleteExpired() {
+        int deleted = repository.deleteExpired(LocalDateTime.now());
+        log.debug("Deleted {} expired idempotency keys", deleted);
+    }
+
+    private Completed executeOnce(String id, String requestHash, Supplier<StoredResponse> action) {
+        // Identifies this claim, a takeover writes a new one; microseconds as stored by PostgreSQL
+        LocalDateTime claimedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        Optional<Completed> earlier = claim(id, requestHash, claimedAt);
+        if (earlier.isPresent()) {
+            return earlier.get();
+        }
+        StoredResponse response;
+        try {
+            response = transactionTemplate.execute(status -> {
+                StoredResponse result = action.get();
+                if (repository.complete(id, claimedAt, result.status(), new String(result.body(), StandardCharsets.UTF_8)) == 0) {
+                    throw new IdempotencyKeyInProgressException("A request with this Idempotency-Key is still being processed");
+                }
+                return result;
+            });
+        } catch (RuntimeException ex) {
+            repository.release(id, claimedAt);
+            throw ex;
+        }
+        return new Completed(requestHash, response);
+    }
+
+    // Empty when this request now owns the key, otherwise the outcome stored by an earlier request
+    private Optional<Completed> claim(String id, String requestHash, LocalDateTime claimedAt) {
+        try {
+            IdempotencyRecord record = new IdempotencyRecord(id, requestHash, claimedAt.plus(ttl));
+            record.setCreatedAt(claimedAt);
+            repository.saveAndFlush(record);
+            return Optional.empty();
+        } catch (DataIntegrityViolationException ex) {
+            IdempotencyRecord record = repository.findById(id)
+                    .orElseThrow(() -> new IdempotencyKeyInProgressException("A request with this Idempotency-Key is still being processed"));
+            if (isAbandoned(record)) {
+                if (repository.takeOver(id, requestHash, claimedAt, claimedAt.plus(ttl), claimedAt.minus(inFlightTimeout)) == 0) {
+                    // Another instance took it over first and is running the request now
+                    throw new IdempotencyKeyInProgressException("A request with this Idempotency-Key is still being processed");
+                }
+                log.warn("Took over expired or abandoned idempotency key {}", id);
+                return Optional.empty();
+            }
+            if (record.getResponseStatus() == null) {
+                throw new IdempotencyKeyInProgressException("A request with this Idempotency-Key is still being processed");
+            }
+            byte[] body = record.getResponseBody().getBytes(StandardCharsets.UTF_8);
+            return Optional.of(new Completed(record.getRequestHash(), new StoredResponse(record.getResponseStatus(), body)));
+        }
+    }
+
+    private boolean isAbandoned(IdempotencyRecord record) {
+        LocalDateTime now = LocalDateTime.now();
+        return record.getExpiresAt().isBefore(now)
+                || (record.getResponseStatus() == null && record.getCreatedAt().plus(inFlightTimeout).isBefore(now));
+    }
+
+    private Completed await(CompletableFuture<Completed> running) {
+        try {
+            return running.get(inFlightTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException("A request with this Idempotency-Key is still being processed");
+        }
+    }
+
+    private StoredResponse replay(String id, Completed result, String requestHash) {
+        if (!result.requestHash().equals(requestHash)) {
+            log.warn("Idempotency key {} reused with a different request", id);
+            throw new IdempotencyKeyReusedException("Idempotency-Key was already used for a different request");
+        }
+        return result.response();
+    }
+}
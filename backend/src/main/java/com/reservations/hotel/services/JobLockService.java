@@ -0,0 +1,95 @@
+package com.reservations.hotel.services;
+
+import com.reservations.hotel.repositories.JobLockRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs scheduled jobs on one instance at a time using leases in the {@code job_locks} table. A lease is short
+ * and renewed by a heartbeat while the job runs, so the job of an instance that dies is picked up again once its
+ * lease has run out. Instances that find the lease taken skip the run.
+ */
+@Service
+@Slf4j
+public class JobLockService {
+    private final JobLockRepository jobLockRepository;
+    private final MeterRegistry meterRegistry;
+    private final double leaseSeconds;
+    private final double minHoldSeconds;
+    private final String owner;
+    private final Set<String> held = ConcurrentHashMap.newKeySet();
+
+    public JobLockService(JobLockRepository jobLockRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${hotel.jobs.lock.lease}") Duration lease,
+                          @Value("${hotel.jobs.lock.min-hold}") Duration minHold) {
+        this.jobLockRepository = jobLockRepository;
+        this.meterRegistry = meterRegistry;
+        this.leaseSeconds = lease.toMillis() / 1000.0;
+        this.minHoldSeconds = minHold.toMillis() / 1000.0;
+        // pid@host, the suffix tells a restarted container with the same pid apart
+        this.owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    /**
+     * Runs the task if no other instance holds the lease on {@code name}.
+     *
+     * @return false if the run was skipped
+     */
+    public boolean runExclusive(String name, Runnable task) {
+        if (jobLockRepository.tryAcquire(name, owner, leaseSeconds) == 0) {
+            log.info("Skipping job {}, it is running on another instance", name);
+            runs(name, "skipped").increment();
+            return false;
+        }
+        held.add(name);
+        runs(name, "acquired").increment();
+        try {
+            task.run();
+            return true;
+        } finally {
+            held.remove(name);
+            try {
+                jobLockRepository.release(name, owner, minHoldSeconds);
+            } catch (RuntimeException ex) {
+                log.warn("Could not release lease on job {}, it expires in {}s", name, leaseSeconds, ex);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${hotel.jobs.lock.heartbeat-interval-ms}")
+    public void extendHeldLeases() {
+        for (String name : held) {
+            if (jobLockRepository.extend(name, owner, leaseSeconds) == 0) {
+                // Another instance may have started the job, this run keeps going but is no longer exclusive
+                log.error("Lease on job {} expired while it was running", name);
+            }
+        }
+    }
+
+    public String owner() {
+        return owner;
+    }
+
+    public Set<String> heldLocally() {
+        return Set.copyOf(held);
+    }
+
+    private Counter runs(String name, String outcome) {
+        return Counter.builder("jobs.lock.runs")
+                .description("Scheduled job runs by lease outcome")
+                .tag("job", name)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -1,83 +1,172 @@
 package com.reservations.hotel.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.reservations.hotel.models.Role;
+import com.reservations.hotel.models.User;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.HexFormat;
+import java.util.UUID;
 
+/**
+ * Issues and verifies HMAC-signed JWTs. The key and parser are built once; each token is verified once and the
+ * resulting claims are remembered under the token's SHA-256 digest until the token expires, so repeated requests
+ * with the same token skip the signature check.
+ */
 @Service
 @Slf4j
 public class JwtService {
-    @Value("${security.jwt.secret-key}")
-    private String secretKey;
-    @Value("${security.jwt.expiration-time}")
-    private long jwtExpirationTime;
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ROLE_CLAIM = "role";
+    private static final String TOKEN_VERSION_CLAIM = "ver";
+    private static final String TYPE_CLAIM = "typ";
+    private static final String REFRESH_TYPE = "refresh";
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final long jwtExpirationTime;
+    private final long refreshExpirationTime;
+    private final Cache<String, TokenClaims> verified;
 
-    public String extractUsername(String jwt) {
-        return extractClaim(jwt, Claims::getSubject);
+    /**
+     * Claims of a token whose signature has been checked. Id, user id, role and token version are null in tokens
+     * issued before they were added; refresh tokens carry no role.
+     */
+    public record TokenClaims(String id, String subject, Long userId, Role role, Long tokenVersion, boolean refresh,
+                              Instant issuedAt, Instant expiresAt) {
+        public boolean hasIdentity() {
+            return userId != null && role != null && tokenVersion != null;
+        }
+
+        public boolean isExpired(Instant now) {
+            return !expiresAt.isAfter(now);
+        }
+    }
+
+    public JwtService(@Value("${security.jwt.secret-key}") String secretKey,
+                      @Value("${security.jwt.expiration-time}") long jwtExpirationTime,
+                      @Value("${security.jwt.refresh-expiration-time}") long refreshExpirationTime,
+                      @Value("${security.jwt.verified-cache-size}") long verifiedCacheSize,
+                      MeterRegistry meterRegistry) {
+        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
+        if (keyBytes.length < 32) { // Minimum 256 bits
+            throw new IllegalArgumentException("Secret key must be at least 256 bits (32 characters)");
+        }
+        this.signingKey = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.jwtExpirationTime = jwtExpirationTime;
+        this.refreshExpirationTime = refreshExpirationTime;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(Expiry.<String, TokenClaims>creating((digest, claims) ->
+                        Duration.between(Instant.now(), claims.expiresAt())))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "jwt.verified");
     }
+
     public long getExpirationTime() {
         return jwtExpirationTime;
     }
 
-    public String generateToken(UserDetails userDetails) {
-        return generateToken(userDetails, jwtExpirationTime);
+    public long getRefreshExpirationTime() {
+        return refreshExpirationTime;
+    }
+
+    public String generateToken(User user) {
+        return generateToken(user, jwtExpirationTime);
     }
 
-    public String generateToken(UserDetails userDetails, long expirationTime) {
-        log.info("Generating token for user: {}", userDetails.getUsername());
+    public String generateToken(User user, long expirationTime) {
+        log.info("Generating token for user: {}", user.getUsername());
         return Jwts.builder()
-                .setSubject(userDetails.getUsername())
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getUsername())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(ROLE_CLAIM, user.getRole().name())
+                .claim(TOKEN_VERSION_CLAIM, user.getTokenVersion())
                 .setIssuedAt(new java.util.Date(System.currentTimeMillis()))
                 .setExpiration(new java.util.Date(System.currentTimeMillis() + expirationTime))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
-    private <T> T extractClaim(String jwt, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(jwt);
-        return claimsResolver.apply(claims);
+    // Accepted only by /auth/refresh, which rotates it, never as an access token
+    public String generateRefreshToken(User user) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(user.getUsername())
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(TOKEN_VERSION_CLAIM, user.getTokenVersion())
+                .claim(TYPE_CLAIM, REFRESH_TYPE)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + refreshExpirationTime))
+                .signWith(signingKey)
+                .compact();
     }
 
-    private Claims extractAllClaims(String jwt) {
-        return Jwts.parserBuilder().setSigningKey(getSigningKey()).build()
-                .parseClaimsJws(jwt).getBody();
+    /**
+     * Verifies signature and expiry of the token.
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, forged or expired
+     */
+    public TokenClaims verify(String jwt) {
+        String digest = digest(jwt);
+        TokenClaims claims = verified.getIfPresent(digest);
+        if (claims != null && !claims.isExpired(Instant.now())) {
+            return claims;
+        }
+        // Expired entries fall through so the parser raises its usual exception
+        Claims body = parser.parseClaimsJws(jwt).getBody();
+        if (body.getExpiration() == null) {
+            throw new MalformedJwtException("JWT has no expiration");
+        }
+        String role = body.get(ROLE_CLAIM, String.class);
+        claims = new TokenClaims(body.getId(),
+                body.getSubject(),
+                toLong(body.get(USER_ID_CLAIM)),
+                role == null ? null : Role.valueOf(role),
+                toLong(body.get(TOKEN_VERSION_CLAIM)),
+                REFRESH_TYPE.equals(body.get(TYPE_CLAIM, String.class)),
+                toInstant(body.getIssuedAt()),
+                body.getExpiration().toInstant());
+        verified.put(digest, claims);
+        return claims;
     }
 
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        if (keyBytes.length < 32) { // Minimum 256 bits
-            throw new IllegalArgumentException("Secret key must be at least 256 bits (32 characters)");
-        }
-        return Keys.hmacShaKeyFor(keyBytes);
+    // Numeric claims come back as Integer or Long depending on their size
+    private static Long toLong(Object claim) {
+        return claim instanceof Number number ? number.longValue() : null;
     }
 
-    public boolean isTokenValid(String jwt, UserDetails userDetails) {
-        final String username = extractUsername(jwt);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(jwt) && verifySignature(jwt));
+    private static Instant toInstant(Date date) {
+        return date == null ? null : date.toInstant();
     }
 
-    private boolean verifySignature(String jwt) {
+    private static String digest(String jwt) {
         try {
-            Jwts.parserBuilder().setSigningKey(getSigningKey()).build().parseClaimsJws(jwt);
-            return true;
-        } catch (JwtException e) {
-            return false;
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(jwt.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
         }
     }
-
-    private boolean isTokenExpired(String jwt) {
-        return extractClaim(jwt, Claims::getExpiration).before(new Date());
-    }
-
-
 }
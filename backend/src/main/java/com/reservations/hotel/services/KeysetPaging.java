@@ -0,0 +1,73 @@
+package com.reservations.hotel.services;
+
+import com.reservations.hotel.exceptions.InvalidSearchParametersException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Page size limits and cursor encoding for keyset pagination. Cursors are opaque URL-safe strings,
+ * clients must pass them back unchanged.
+ */
+public final class KeysetPaging {
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    // Largest result of an unpaged listing, bigger ones must be paged
+    public static final int MAX_UNPAGED = 1000;
+    private static final String SEPARATOR = "|";
+
+    private KeysetPaging() {
+    }
+
+    public static int pageSize(Integer requested) {
+        if (requested == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(requested, MAX_PAGE_SIZE));
+    }
+
+    public static <T> List<T> requireUnpaged(List<T> items) {
+        if (items.size() > MAX_UNPAGED) {
+            throw new InvalidSearchParametersException("More than " + MAX_UNPAGED + " results, use cursor and limit instead of unpaged");
+        }
+        return items;
+    }
+
+    public record ReservationPosition(LocalDateTime createdAt, Long id) {
+    }
+
+    public static String ofRoomNumber(Integer roomNumber) {
+        return encode(String.valueOf(roomNumber));
+    }
+
+    public static Integer toRoomNumber(String cursor) {
+        try {
+            return Integer.valueOf(decode(cursor));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidSearchParametersException("Invalid cursor");
+        }
+    }
+
+    public static String ofReservation(LocalDateTime createdAt, Long id) {
+        return encode(createdAt + SEPARATOR + id);
+    }
+
+    public static ReservationPosition toReservationPosition(String cursor) {
+        try {
+            String[] parts = decode(cursor).split("\\" + SEPARATOR, 2);
+            return new ReservationPosition(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+        } catch (RuntimeException e) {
+            throw new InvalidSearchParametersException("Invalid cursor");
+        }
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+}
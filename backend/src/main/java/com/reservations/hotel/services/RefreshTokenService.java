@@ -0,0 +1,90 @@
+package com.reservations.hotel.services;
+
+import com.reservations.hotel.exceptions.InvalidRefreshTokenException;
+import com.reservations.hotel.exceptions.TokenRevokedException;
+import com.reservations.hotel.exceptions.UserNotFoundException;
+import com.reservations.hotel.exceptions.UserNotVerifiedException;
+import com.reservations.hotel.models.User;
+import com.reservations.hotel.repositories.UserRepository;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Rotation and revocation of refresh tokens. Each refresh token can be exchanged once: its id is revoked as the
+ * new pair is issued. Presenting it a second time means it was copied, so every token of the user is revoked.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+    private final JwtService jwtService;
+    private final TokenVersionService tokenVersionService;
+    private final TokenRevocationService tokenRevocationService;
+    private final UserRepository userRepository;
+
+    public RefreshTokenService(JwtService jwtService,
+                               TokenVersionService tokenVersionService,
+                               TokenRevocationService tokenRevocationService,
+                               UserRepository userRepository) {
+        this.jwtService = jwtService;
+        this.tokenVersionService = tokenVersionService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.userRepository = userRepository;
+    }
+
+    /**
+     * Uses up the refresh token and returns its user, freshly loaded so the new tokens carry the current role.
+     */
+    public User rotate(String refreshToken) {
+        JwtService.TokenClaims claims = verifyRefreshToken(refreshToken);
+        if (!tokenVersionService.isCurrent(claims.userId(), claims.tokenVersion())) {
+            throw new TokenRevokedException("Token has been revoked");
+        }
+        // The insert decides, of two requests racing with the same token only one gets through
+        if (!tokenRevocationService.revoke(claims.id(), claims.expiresAt())) {
+            log.warn("Refresh token of user ID {} was used again, revoking all of the user's tokens", claims.userId());
+            tokenVersionService.revokeTokens(claims.userId());
+            throw new TokenRevokedException("Token has been revoked");
+        }
+        User user = userRepository.findById(claims.userId())
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+        if (!user.isEnabled()) {
+            throw new UserNotVerifiedException("User account is not verified. Please check your email for verification link.");
+        }
+        log.debug("Rotated refresh token of user ID: {}", user.getId());
+        return user;
+    }
+
+    /**
+     * Revokes the refresh token and, if given, the access token it was sent with.
+     */
+    public void logout(String refreshToken, String accessToken) {
+        JwtService.TokenClaims claims = verifyRefreshToken(refreshToken);
+        tokenRevocationService.revoke(claims.id(), claims.expiresAt());
+        if (accessToken != null) {
+            try {
+                JwtService.TokenClaims access = jwtService.verify(accessToken);
+                if (access.id() != null && !access.refresh() && claims.userId().equals(access.userId())) {
+                    tokenRevocationService.revoke(access.id(), access.expiresAt());
+                }
+            } catch (JwtException e) {
+                // An expired or forged access token is refused anyway
+                log.debug("Ignoring invalid access token on logout: {}", e.getMessage());
+            }
+        }
+        log.info("Logged out user ID: {}", claims.userId());
+    }
+
+    private JwtService.TokenClaims verifyRefreshToken(String refreshToken) {
+        JwtService.TokenClaims claims;
+        try {
+            claims = jwtService.verify(refreshToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidRefreshTokenException("Invalid or expired refresh token");
+        }
+        if (!claims.refresh() || claims.id() == null || claims.userId() == null || claims.tokenVersion() == null) {
+            throw new InvalidRefreshTokenException("Invalid or expired refresh token");
+        }
+        return claims;
+    }
+}
@@ -0,0 +1,104 @@
+package com.reservations.hotel.services;
+
+import com.reservations.hotel.events.ReservationChangedEvent;
+import com.reservations.hotel.repositories.IdRange;
+import com.reservations.hotel.repositories.ReservationRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+
+/**
+ * Nightly move of confirmed reservations past their check-out date to COMPLETED. Runs as set-based updates over
+ * consecutive id ranges, each in its own short transaction, so no entities are loaded and memory does not grow
+ * with the backlog. An interrupted run leaves the committed chunks in place and the next run picks up the rest.
+ */
+@Service
+@Slf4j
+public class ReservationCompletionJob {
+    private static final String JOB_NAME = "reservations.completion";
+    private static final int PROGRESS_LOG_CHUNKS = 100;
+    private final ReservationRepository reservationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final JobLockService jobLockService;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary completedRows;
+    private final DistributionSummary completedChunks;
+    private final int chunkSize;
+
+    public ReservationCompletionJob(ReservationRepository reservationRepository,
+                                    TransactionTemplate transactionTemplate,
+                                    ApplicationEventPublisher eventPublisher,
+                                    JobLockService jobLockService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${hotel.reservations.completion.chunk-size}") int chunkSize) {
+        this.reservationRepository = reservationRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.jobLockService = jobLockService;
+        this.meterRegistry = meterRegistry;
+        this.completedRows = DistributionSummary.builder("reservations.completion.rows")
+                .description("Reservations moved to COMPLETED per run")
+                .register(meterRegistry);
+        this.completedChunks = DistributionSummary.builder("reservations.completion.chunks")
+                .description("Id-range chunks processed per run")
+                .register(meterRegistry);
+        this.chunkSize = chunkSize;
+    }
+
+    // Fires on every instance, only the one holding the lease does the work
+    @Scheduled(cron = "${hotel.reservations.completion.cron}")
+    public void updateCompletedReservations() {
+        jobLockService.runExclusive(JOB_NAME, this::completeCheckedOutReservations);
+    }
+
+    public void completeCheckedOutReservations() {
+        LocalDate today = LocalDate.now();
+        log.info("Starting automatic update of completed reservations");
+        Timer.Sample sample = Timer.start(meterRegistry);
+        long rows = 0;
+        long chunks = 0;
+        String outcome = "failure";
+        try {
+            IdRange range = reservationRepository.findCheckedOutIdRange(today);
+            if (range != null && range.getMinId() != null) {
+                for (long fromId = range.getMinId(); fromId <= range.getMaxId(); fromId += chunkSize) {
+                    long toId = Math.min(fromId + chunkSize - 1, range.getMaxId());
+                    rows += completeChunk(fromId, toId, today);
+                    chunks++;
+                    if (chunks % PROGRESS_LOG_CHUNKS == 0) {
+                        log.info("Completed reservations progress: {} rows in {} chunks, up to id {} of {}", rows, chunks, toId, range.getMaxId());
+                    }
+                }
+            }
+            outcome = "success";
+        } finally {
+            sample.stop(Timer.builder("reservations.completion.duration")
+                    .description("Duration of a completed reservations run")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            completedRows.record(rows);
+            completedChunks.record(chunks);
+        }
+        log.info("Updated {} reservations to COMPLETED status in {} chunks", rows, chunks);
+    }
+
+    private int completeChunk(long fromId, long toId, LocalDate today) {
+        Integer updated = transactionTemplate.execute(status -> {
+            // Listeners run after this chunk commits
+            reservationRepository.findCheckedOutRoomIds(fromId, toId, today)
+                    .forEach(roomId -> eventPublisher.publishEvent(new ReservationChangedEvent(roomId)));
+            return reservationRepository.completeCheckedOut(fromId, toId, today);
+        });
+        log.debug("Completed {} reservations with ids {} to {}", updated, fromId, toId);
+        return updated == null ? 0 : updated;
+    }
+}
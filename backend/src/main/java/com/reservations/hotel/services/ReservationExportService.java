@@ -0,0 +1,100 @@
+package com.reservations.hotel.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reservations.hotel.dto.ReservationExportRowDto;
+import com.reservations.hotel.repositories.ReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Writes every reservation straight from a database cursor to the response stream,
+ * so memory use does not depend on the number of rows.
+ */
+@Service
+@Slf4j
+public class ReservationExportService {
+    private static final String CSV_HEADER = "id,email,roomNumber,roomType,roomCapacity,roomPricePerNight,totalPrice,status,checkInDate,checkOutDate,createdAt";
+    private final ReservationRepository reservationRepository;
+    private final ObjectMapper objectMapper;
+
+    public ReservationExportService(ReservationRepository reservationRepository, ObjectMapper objectMapper) {
+        this.reservationRepository = reservationRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public void writeNdjson(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        AtomicLong count = new AtomicLong();
+        try (Stream<ReservationExportRowDto> rows = reservationRepository.streamAllForExport()) {
+            rows.forEach(row -> {
+                try {
+                    objectMapper.writeValue(generator, row);
+                    generator.writeRaw('\n');
+                    count.incrementAndGet();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        generator.flush();
+        log.info("Exported {} reservations as NDJSON", count.get());
+    }
+
+    @Transactional(readOnly = true)
+    public void writeCsv(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        AtomicLong count = new AtomicLong();
+        try (Stream<ReservationExportRowDto> rows = reservationRepository.streamAllForExport()) {
+            rows.forEach(row -> {
+                try {
+                    writer.write(toCsvLine(row));
+                    writer.write('\n');
+                    count.incrementAndGet();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+        writer.flush();
+        log.info("Exported {} reservations as CSV", count.get());
+    }
+
+    private String toCsvLine(ReservationExportRowDto row) {
+        return String.join(",",
+                String.valueOf(row.getId()),
+                csvField(row.getEmail()),
+                String.valueOf(row.getRoomNumber()),
+                row.getRoomType(),
+                String.valueOf(row.getRoomCapacity()),
+                String.valueOf(row.getRoomPricePerNight()),
+                String.valueOf(row.getTotalPrice()),
+                row.getStatus(),
+                row.getCheckInDate(),
+                row.getCheckOutDate(),
+                row.getCreatedAt() != null ? row.getCreatedAt() : "");
+    }
+
+    private String csvField(String value) {
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
@@ -1,7 +1,10 @@
 package com.reservations.hotel.services;
 
+import com.reservations.hotel.dto.PageResponseDto;
 import com.reservations.hotel.dto.ReservationCreateDto;
 import com.reservations.hotel.dto.ReservationResponseDto;
+import com.reservations.hotel.events.ReservationChangedEvent;
+import com.reservations.hotel.events.ReservationHeldEvent;
 import com.reservations.hotel.exceptions.InvalidReservationRequestException;
 import com.reservations.hotel.exceptions.ReservationError;
 import com.reservations.hotel.exceptions.ReservationNotFoundException;
@@ -12,23 +15,39 @@ import com.reservations.hotel.models.User;
 import com.reservations.hotel.repositories.ReservationRepository;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 
 @Service
 @Slf4j
 public class ReservationService {
+    private static final String NO_OVERLAP_CONSTRAINT = "reservations_no_overlap"; // see db/reservations-constraints.sql
     private final ReservationRepository reservationRepository;
     private final RoomService roomService;
     private final UserService userService;
-    public ReservationService(ReservationRepository reservationRepository, RoomService roomService, UserService userService) {
+    private final ApplicationEventPublisher eventPublisher;
+    private final RoomLockManager roomLockManager;
+    private final boolean roomLocksEnabled;
+    private final Duration holdTtl;
+    public ReservationService(ReservationRepository reservationRepository, RoomService roomService, UserService userService, ApplicationEventPublisher eventPublisher,
+                              RoomLockManager roomLockManager, @Value("${hotel.booking.lock.enabled}") boolean roomLocksEnabled,
+                              @Value("${hotel.reservations.hold-ttl}") Duration holdTtl) {
         this.reservationRepository = reservationRepository;
         this.roomService = roomService;
         this.userService = userService;
+        this.eventPublisher = eventPublisher;
+        this.roomLockManager = roomLockManager;
+        this.roomLocksEnabled = roomLocksEnabled;
+        this.holdTtl = holdTtl;
     }
     public List<Reservation> getUserReservations(Long userId) {
         return reservationRepository.findByUserId(userId);
@@ -40,12 +59,37 @@ public class ReservationService {
                 .map(this::convertToDto).toList();
     }
 
+    public boolean isReservationOwner(Long reservationId, Long userId) {
+        return reservationRepository.existsByIdAndUserId(reservationId, userId);
+    }
+
     public List<ReservationResponseDto> getAllReservations() {
-        List<Reservation> reservations = reservationRepository.findAll();
+        // One more than allowed, so an oversized result is rejected without loading the whole table
+        List<Reservation> reservations = KeysetPaging.requireUnpaged(
+                reservationRepository.findFirstPage(Limit.of(KeysetPaging.MAX_UNPAGED + 1)));
         return reservations.stream()
                 .map(this::convertToDto).toList();
     }
 
+    public PageResponseDto<ReservationResponseDto> getReservationsPage(String cursor, Integer limit) {
+        int pageSize = KeysetPaging.pageSize(limit);
+        Limit fetchLimit = Limit.of(pageSize + 1);
+        List<Reservation> reservations;
+        if (cursor == null) {
+            reservations = reservationRepository.findFirstPage(fetchLimit);
+        } else {
+            KeysetPaging.ReservationPosition position = KeysetPaging.toReservationPosition(cursor);
+            reservations = reservationRepository.findPageAfter(position.createdAt(), position.id(), fetchLimit);
+        }
+        String next = null;
+        if (reservations.size() > pageSize) {
+            reservations = reservations.subList(0, pageSize);
+            Reservation last = reservations.get(pageSize - 1);
+            next = KeysetPaging.ofReservation(last.getCreatedAt(), last.getId());
+        }
+        return new PageResponseDto<>(reservations.stream().map(this::convertToDto).toList(), next);
+    }
+
     @Transactional
     public ReservationResponseDto createReservation(Long userId, ReservationCreateDto reservationDto) {
         log.info("Creating reservation for user ID: {} with details: {}", userId, reservationDto);
@@ -54,66 +98,80 @@ public class ReservationService {
 
         validateReservationDates(reservationDto.getCheckInDate(), reservationDto.getCheckOutDate());
 
-        if (!roomService.isRoomAvailable(room.getId(), reservationDto.getCheckInDate(), reservationDto.getCheckOutDate())) {
+        // Held until commit, same-room bookings on this instance run the check and insert one at a time
+        if (roomLocksEnabled) {
+            roomLockManager.lockForTransaction(room.getId());
+        }
+        // Booking always checks the database, the availability index only serves searches
+        if (reservationRepository.existsConflictingReservation(room.getId(), reservationDto.getCheckInDate(), reservationDto.getCheckOutDate())) {
             log.warn("Room ID: {} is not available from {} to {}", room.getRoomNumber(), reservationDto.getCheckInDate(), reservationDto.getCheckOutDate());
             throw new InvalidReservationRequestException(ReservationError.ROOM_NOT_AVAILABLE);
         }
         Reservation reservation = new Reservation(user, room, reservationDto.getCheckInDate(), reservationDto.getCheckOutDate());
         log.debug("Reservation Created - Reservation details: {}", reservation);
-        return convertToDto(reservationRepository.save(reservation));
+        Reservation savedReservation;
+        try {
+            // Flush now so a concurrent booking that slipped past the check above hits the exclusion constraint here
+            savedReservation = reservationRepository.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException ex) {
+            if (!isOverlapViolation(ex)) {
+                throw ex;
+            }
+            log.warn("Room ID: {} was booked concurrently from {} to {}", room.getRoomNumber(), reservationDto.getCheckInDate(), reservationDto.getCheckOutDate());
+            throw new InvalidReservationRequestException(ReservationError.ROOM_NOT_AVAILABLE);
+        }
+        eventPublisher.publishEvent(new ReservationChangedEvent(room.getId()));
+        eventPublisher.publishEvent(new ReservationHeldEvent(savedReservation.getId(), room.getId(), savedReservation.getCreatedAt()));
+        return convertToDto(savedReservation);
     }
+    // Status changes are conditional updates rather than read-modify-write, so a hold expired or a reservation
+    // completed by a background job in the meantime is never overwritten
     @Transactional
     public ReservationResponseDto confirmReservation(Long reservationId) {
         log.info("Confirming reservation ID: {}", reservationId);
-        Reservation reservation = reservationRepository.findById(reservationId)
-                .orElseThrow(() ->{
-                    log.warn("Reservation Confirmation Failed - Reservation ID: {} not found for confirmation", reservationId);
-                    return new ReservationNotFoundException("Reservation not found");});
-        if (!reservation.getStatus().equals(ReservationStatus.PENDING)) {
+        if (reservationRepository.confirmPending(reservationId, LocalDateTime.now().minus(holdTtl)) == 0) {
+            Reservation reservation = findReservation(reservationId, "confirmation");
+            if (reservation.getStatus() == ReservationStatus.PENDING) {
+                log.warn("Reservation Confirmation Failed - Hold Expired - Reservation ID: {} was not confirmed within {}", reservationId, holdTtl);
+                throw new InvalidReservationRequestException(ReservationError.HOLD_EXPIRED);
+            }
             log.warn("Reservation Confirmation Failed - Invalid Status - Reservation ID: {} is not in PENDING status", reservationId);
             throw new InvalidReservationRequestException(ReservationError.INVALID_RESERVATION_STATUS);
         }
-        reservation.setStatus(ReservationStatus.CONFIRMED);
+        Reservation reservation = findReservation(reservationId, "confirmation");
         log.debug("Reservation Confirmed - Reservation details: {}", reservation);
-        return convertToDto(reservationRepository.save(reservation));
+        eventPublisher.publishEvent(new ReservationChangedEvent(reservation.getRoom().getId()));
+        return convertToDto(reservation);
     }
 
     @Transactional
     public ReservationResponseDto cancelReservation(Long reservationId) {
         log.info("Cancelling reservation ID: {}", reservationId);
-        Reservation reservation = reservationRepository.findById(reservationId)
-                .orElseThrow(() ->{
-                    log.warn("Reservation Cancellation Failed - Reservation ID: {} not found for cancellation", reservationId);
-                    return new ReservationNotFoundException("Reservation not found");});
-        if (reservation.getCheckInDate().isBefore(LocalDate.now().plusDays(1))) {
-            log.warn("Reservation Cancellation Failed - Cancellation Too Late - Reservation ID: {} cannot be cancelled less than 24 hours before check-in", reservationId);
-            throw new InvalidReservationRequestException(ReservationError.CANCELLATION_TOO_LATE);
+        if (reservationRepository.cancelActive(reservationId, LocalDate.now().plusDays(1)) == 0) {
+            Reservation reservation = findReservation(reservationId, "cancellation");
+            if (reservation.getCheckInDate().isBefore(LocalDate.now().plusDays(1))) {
+                log.warn("Reservation Cancellation Failed - Cancellation Too Late - Reservation ID: {} cannot be cancelled less than 24 hours before check-in", reservationId);
+                throw new InvalidReservationRequestException(ReservationError.CANCELLATION_TOO_LATE);
+            }
+            log.warn("Reservation Cancellation Failed - Invalid Status - Reservation ID: {} is already {}", reservationId, reservation.getStatus());
+            throw new InvalidReservationRequestException(ReservationError.INVALID_RESERVATION_STATUS);
         }
-        reservation.setStatus(ReservationStatus.CANCELLED);
+        Reservation reservation = findReservation(reservationId, "cancellation");
         log.debug("Reservation Cancelled - Reservation details: {}", reservation);
-
-        return convertToDto(reservationRepository.save(reservation));
+        eventPublisher.publishEvent(new ReservationChangedEvent(reservation.getRoom().getId()));
+        return convertToDto(reservation);
     }
 
-
-    @Transactional
-    @Scheduled(cron = "0 0 2 * * ?")
-    public void updateCompletedReservations() {
-        log.info("Starting automatic update of completed reservations");
-
-        LocalDate today = LocalDate.now();
-        List<Reservation> completedReservations = reservationRepository
-                .findByStatusAndCheckOutDateBefore(ReservationStatus.CONFIRMED, today);
-
-        for (Reservation reservation : completedReservations) {
-            reservation.setStatus(ReservationStatus.COMPLETED);
-            log.debug("Updated reservation ID: {} to COMPLETED", reservation.getId());
-        }
-
-        reservationRepository.saveAll(completedReservations);
-        log.info("Updated {} reservations to COMPLETED status", completedReservations.size());
+    // Loaded after the update, so the persistence context holds the row as written
+    private Reservation findReservation(Long reservationId, String action) {
+        return reservationRepository.findById(reservationId)
+                .orElseThrow(() -> {
+                    log.warn("Reservation {} Failed - Reservation ID: {} not found", action, reservationId);
+                    return new ReservationNotFoundException("Reservation not found");
+                });
     }
 
+
     private void validateReservationDates(LocalDate checkIn, LocalDate checkOut) {
         if (checkIn.isBefore(LocalDate.now())) {
             throw new InvalidReservationRequestException(ReservationError.CHECK_IN_DATE_IN_PAST);
@@ -125,6 +183,10 @@ public class ReservationService {
             throw new InvalidReservationRequestException(ReservationError.MINIMUM_STAY_ONE_NIGHT);
         }
     }
+    private boolean isOverlapViolation(DataIntegrityViolationException ex) {
+        String message = ex.getMostSpecificCause().getMessage();
+        return message != null && message.contains(NO_OVERLAP_CONSTRAINT);
+    }
     private ReservationResponseDto convertToDto(Reservation reservation) {
         return new ReservationResponseDto(reservation);
     }
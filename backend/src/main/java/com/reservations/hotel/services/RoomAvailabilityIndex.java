@@ -0,0 +1,141 @@
+package com.reservations.hotel.services;
+
+import com.reservations.hotel.events.ReservationChangedEvent;
+import com.reservations.hotel.repositories.BookedInterval;
+import com.reservations.hotel.repositories.ReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory occupancy index: one day-granular bitmap per room covering {@code horizonDays} nights from today.
+ * Bit {@code i} of a room is set when the night starting at {@code start + i} is taken by an active reservation.
+ * <p>
+ * The database stays the source of truth. The index is built at startup, patched per room after every committed
+ * reservation change and fully rebuilt on a fixed delay, which also rolls the horizon forward and picks up
+ * bookings made by other instances. Searches outside the horizon, or before the first build, must fall back to the database.
+ * <p>
+ * Rooms without bookings in the horizon have no bitmap. Every per-room refresh takes a generation number; a rebuild
+ * re-applies the refreshes numbered after it started reading, which its snapshot may predate.
+ */
+@Service
+@Slf4j
+public class RoomAvailabilityIndex {
+    private final ReservationRepository reservationRepository;
+    private final int horizonDays;
+    private final CatalogVersion catalogVersion;
+    private final AtomicLong refreshes = new AtomicLong();
+    private final Map<Long, Long> refreshedAt = new ConcurrentHashMap<>(); // room id -> generation of its last refresh
+    private volatile Horizon horizon;
+
+    private record Horizon(LocalDate start, Map<Long, BitSet> occupancy) {
+    }
+
+    public RoomAvailabilityIndex(ReservationRepository reservationRepository,
+                                 @Value("${hotel.availability.horizon-days}") int horizonDays,
+                                 CatalogVersion catalogVersion) {
+        this.reservationRepository = reservationRepository;
+        this.horizonDays = horizonDays;
+        this.catalogVersion = catalogVersion;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${hotel.availability.refresh-interval-ms}",
+            initialDelayString = "${hotel.availability.refresh-interval-ms}")
+    public void rebuild() {
+        long generation = refreshes.get();
+        LocalDate start = LocalDate.now();
+        List<BookedInterval> intervals = reservationRepository.findActiveIntervalsEndingAfter(start);
+        Map<Long, BitSet> occupancy = new ConcurrentHashMap<>();
+        for (BookedInterval interval : intervals) {
+            mark(occupancy.computeIfAbsent(interval.getRoomId(), id -> new BitSet(horizonDays)), start, interval);
+        }
+        Horizon previous = horizon;
+        horizon = new Horizon(start, occupancy);
+        // Refreshed while the snapshot was being read, possibly into the previous horizon
+        refreshedAt.entrySet().stream()
+                .filter(entry -> entry.getValue() > generation)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(this::refreshRoom);
+        refreshedAt.values().removeIf(refreshed -> refreshed <= generation);
+        // Bookings made through other instances only show up here
+        if (previous != null && (!previous.start().equals(start) || !previous.occupancy().equals(occupancy))) {
+            catalogVersion.bump();
+        }
+        log.debug("Availability index rebuilt from {} reservations for {} rooms", intervals.size(), occupancy.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        refreshRoom(event.roomId());
+    }
+
+    public void refreshRoom(Long roomId) {
+        Horizon current = horizon;
+        if (current == null) {
+            return;
+        }
+        refreshedAt.put(roomId, refreshes.incrementAndGet());
+        BitSet bits = new BitSet(horizonDays);
+        for (BookedInterval interval : reservationRepository.findActiveIntervalsByRoomIdEndingAfter(roomId, current.start())) {
+            mark(bits, current.start(), interval);
+        }
+        // Bitmaps are never mutated once published, readers may hold the previous one.
+        if (bits.isEmpty()) {
+            current.occupancy().remove(roomId);
+        } else {
+            current.occupancy().put(roomId, bits);
+        }
+        log.debug("Availability index refreshed for room id {}", roomId);
+    }
+
+    /**
+     * Whether the index can answer a query for the given stay without consulting the database.
+     */
+    public boolean covers(LocalDate checkInDate, LocalDate checkOutDate) {
+        Horizon current = horizon;
+        return current != null
+                && !checkInDate.isBefore(current.start())
+                && !checkOutDate.isAfter(current.start().plusDays(horizonDays));
+    }
+
+    /**
+     * Checks that no night of {@code [checkInDate, checkOutDate)} is taken. Callers must check {@link #covers} first.
+     */
+    public boolean isAvailable(Long roomId, LocalDate checkInDate, LocalDate checkOutDate) {
+        Horizon current = horizon;
+        BitSet bits = current.occupancy().get(roomId);
+        if (bits == null) {
+            return true;
+        }
+        int from = (int) Math.max(0, checkInDate.toEpochDay() - current.start().toEpochDay());
+        int to = (int) (checkOutDate.toEpochDay() - current.start().toEpochDay());
+        int firstTaken = bits.nextSetBit(from);
+        return firstTaken < 0 || firstTaken >= to;
+    }
+
+    private void mark(BitSet bits, LocalDate start, BookedInterval interval) {
+        long base = start.toEpochDay();
+        int from = (int) Math.max(0, interval.getCheckInDate().toEpochDay() - base);
+        int to = (int) Math.min(horizonDays, interval.getCheckOutDate().toEpochDay() - base);
+        if (from < to) {
+            bits.set(from, to);
+        }
+    }
+}
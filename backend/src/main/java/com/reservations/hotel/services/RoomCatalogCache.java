@@ -0,0 +1,90 @@
+package com.reservations.hotel.services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reservations.hotel.events.RoomCatalogRevisedEvent;
+import com.reservations.hotel.events.RoomChangedEvent;
+import com.reservations.hotel.models.Room;
+import com.reservations.hotel.repositories.RoomRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Size- and TTL-bounded cache of room metadata. Cached rooms are detached entities shared between
+ * requests and must be treated as read-only; writes go through {@link RoomRepository} and evict the
+ * affected entries once their transaction commits. Changes made on other instances empty the whole cache once
+ * {@link CatalogVersion} picks up the shared room revision, so entries are stale for at most
+ * {@code hotel.cache.rooms.sync-interval-ms} plus a poll, not the TTL.
+ * <p>
+ * Misses are loaded through {@link AsyncCacheLoads}, so no query runs inside a lock of the cache.
+ */
+@Service
+@Slf4j
+public class RoomCatalogCache {
+    private static final String ALL_ROOMS = "all";
+    private final RoomRepository roomRepository;
+    private final AsyncCache<Long, Room> roomsById;
+    private final AsyncCache<Integer, Room> roomsByNumber;
+    private final AsyncCache<String, List<Room>> catalog;
+    private final Counter invalidations;
+
+    public RoomCatalogCache(RoomRepository roomRepository,
+                            MeterRegistry meterRegistry,
+                            @Value("${hotel.cache.rooms.maximum-size}") long maximumSize,
+                            @Value("${hotel.cache.rooms.ttl}") Duration ttl) {
+        this.roomRepository = roomRepository;
+        this.roomsById = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().buildAsync();
+        this.roomsByNumber = Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().buildAsync();
+        this.catalog = Caffeine.newBuilder().maximumSize(1).expireAfterWrite(ttl).recordStats().buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, roomsById, "rooms.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, roomsByNumber, "rooms.byNumber");
+        CaffeineCacheMetrics.monitor(meterRegistry, catalog, "rooms.catalog");
+        this.invalidations = Counter.builder("rooms.cache.invalidations")
+                .description("Room cache entries evicted after room changes")
+                .register(meterRegistry);
+    }
+
+    // Sorted by room number
+    public List<Room> getAll() {
+        return AsyncCacheLoads.get(catalog, ALL_ROOMS, key -> List.copyOf(roomRepository.findAll(Sort.by("roomNumber"))));
+    }
+
+    public Optional<Room> getById(Long roomId) {
+        return Optional.ofNullable(AsyncCacheLoads.get(roomsById, roomId, id -> roomRepository.findById(id).orElse(null)));
+    }
+
+    public Optional<Room> getByRoomNumber(Integer roomNumber) {
+        return Optional.ofNullable(AsyncCacheLoads.get(roomsByNumber, roomNumber, number -> roomRepository.findByRoomNumber(number).orElse(null)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomChanged(RoomChangedEvent event) {
+        if (event.roomId() != null) {
+            roomsById.synchronous().invalidate(event.roomId());
+        }
+        roomsByNumber.synchronous().invalidateAll(event.roomNumbers());
+        catalog.synchronous().invalidate(ALL_ROOMS);
+        invalidations.increment();
+        log.debug("Room cache evicted for room id {} numbers {}", event.roomId(), event.roomNumbers());
+    }
+
+    @EventListener
+    public void onRoomCatalogRevised(RoomCatalogRevisedEvent event) {
+        roomsById.synchronous().invalidateAll();
+        roomsByNumber.synchronous().invalidateAll();
+        catalog.synchronous().invalidateAll();
+        invalidations.increment();
+        log.debug("Room cache emptied for shared revision {}", event.revision());
+    }
+}
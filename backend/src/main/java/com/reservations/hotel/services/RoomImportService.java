@@ -0,0 +1,261 @@
+package com.reservations.hotel.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reservations.hotel.dto.RoomCreateDto;
+import com.reservations.hotel.dto.RoomImportResultDto;
+import com.reservations.hotel.dto.RoomImportResultDto.RowError;
+import com.reservations.hotel.events.RoomChangedEvent;
+import com.reservations.hotel.exceptions.InvalidSearchParametersException;
+import com.reservations.hotel.exceptions.RoomImportAbortedException;
+import com.reservations.hotel.models.Room;
+import com.reservations.hotel.models.RoomType;
+import com.reservations.hotel.repositories.RoomRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Streams rooms from a CSV or JSON array body and inserts them in chunks. Each row is validated on its own,
+ * room numbers of a chunk are checked against the database with one query, and each chunk is written in its
+ * own transaction so Hibernate can send the inserts as JDBC batches. Invalid rows are reported, not fatal; a JSON
+ * body that is cut off or not valid JSON ends the import with the rows read so far committed.
+ */
+@Service
+@Slf4j
+public class RoomImportService {
+    private static final List<String> CSV_COLUMNS = List.of("roomNumber", "roomType", "capacity", "pricePerNight", "description");
+    private final RoomRepository roomRepository;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    public RoomImportService(RoomRepository roomRepository,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             TransactionTemplate transactionTemplate,
+                             ApplicationEventPublisher eventPublisher,
+                             @Value("${hotel.rooms.import.chunk-size}") int chunkSize) {
+        this.roomRepository = roomRepository;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    public RoomImportResultDto importJson(InputStream body) throws IOException {
+        Import run = new Import();
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (nextToken(parser, run) != JsonToken.START_ARRAY) {
+                throw new InvalidSearchParametersException("Expected a JSON array of rooms");
+            }
+            JsonToken token;
+            while ((token = nextToken(parser, run)) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new RoomImportAbortedException("JSON body ended before the closing ]", run.finish());
+                }
+                // Read as a tree first so a malformed row does not leave the parser in the middle of an object
+                JsonNode node;
+                try {
+                    node = parser.readValueAsTree();
+                } catch (JsonProcessingException e) {
+                    throw new RoomImportAbortedException("Malformed JSON: " + e.getOriginalMessage(), run.finish());
+                }
+                try {
+                    run.accept(objectMapper.treeToValue(node, RoomCreateDto.class));
+                } catch (JsonProcessingException e) {
+                    run.reject(node.path("roomNumber").isInt() ? node.get("roomNumber").intValue() : null, e.getOriginalMessage());
+                }
+            }
+        }
+        return run.finish();
+    }
+
+    // A syntax error cannot be skipped like a bad row, the parser has lost its place in the array
+    private static JsonToken nextToken(JsonParser parser, Import run) throws IOException {
+        try {
+            return parser.nextToken();
+        } catch (JsonProcessingException e) {
+            throw new RoomImportAbortedException("Malformed JSON: " + e.getOriginalMessage(), run.finish());
+        }
+    }
+
+    public RoomImportResultDto importCsv(InputStream body) throws IOException {
+        Import run = new Import();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String header = reader.readLine();
+        if (header == null) {
+            throw new InvalidSearchParametersException("CSV header is missing");
+        }
+        int[] columns = columnIndexes(parseCsvLine(header));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> fields = parseCsvLine(line);
+            Integer roomNumber = null;
+            try {
+                RoomCreateDto row = new RoomCreateDto();
+                roomNumber = Integer.valueOf(field(fields, columns[0]));
+                row.setRoomNumber(roomNumber);
+                row.setRoomType(RoomType.valueOf(field(fields, columns[1]).toUpperCase(Locale.ROOT)));
+                row.setCapacity(Integer.valueOf(field(fields, columns[2])));
+                row.setPricePerNight(Double.valueOf(field(fields, columns[3])));
+                row.setDescription(field(fields, columns[4]));
+                run.accept(row);
+            } catch (IllegalArgumentException e) {
+                run.reject(roomNumber, "Invalid value: " + e.getMessage());
+            }
+        }
+        return run.finish();
+    }
+
+    private static int[] columnIndexes(List<String> header) {
+        int[] indexes = new int[CSV_COLUMNS.size()];
+        for (int i = 0; i < CSV_COLUMNS.size(); i++) {
+            int index = -1;
+            for (int j = 0; j < header.size(); j++) {
+                if (header.get(j).trim().equalsIgnoreCase(CSV_COLUMNS.get(i))) {
+                    index = j;
+                }
+            }
+            if (index < 0) {
+                throw new InvalidSearchParametersException("CSV header must contain " + String.join(",", CSV_COLUMNS));
+            }
+            indexes[i] = index;
+        }
+        return indexes;
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index).trim() : "";
+    }
+
+    // Fields may be quoted with ", a doubled quote inside a quoted field is a literal quote
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private record PendingRow(int row, RoomCreateDto room) {
+    }
+
+    private class Import {
+        private final long startedAt = System.nanoTime();
+        private final Set<Integer> seen = new HashSet<>();
+        private final List<PendingRow> pending = new ArrayList<>(chunkSize);
+        private final List<RowError> errors = new ArrayList<>();
+        private final List<Integer> created = new ArrayList<>();
+        private int rows;
+
+        void accept(RoomCreateDto room) {
+            rows++;
+            Set<ConstraintViolation<RoomCreateDto>> violations = validator.validate(room);
+            if (!violations.isEmpty()) {
+                errors.add(new RowError(rows, room.getRoomNumber(), violations.stream()
+                        .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", "))));
+                return;
+            }
+            if (!seen.add(room.getRoomNumber())) {
+                errors.add(new RowError(rows, room.getRoomNumber(), "Duplicate room number in this import"));
+                return;
+            }
+            pending.add(new PendingRow(rows, room));
+            if (pending.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(Integer roomNumber, String message) {
+            rows++;
+            errors.add(new RowError(rows, roomNumber, message));
+        }
+
+        RoomImportResultDto finish() {
+            flush();
+            errors.sort(Comparator.comparingInt(RowError::row));
+            if (!created.isEmpty()) {
+                eventPublisher.publishEvent(new RoomChangedEvent(null, created));
+            }
+            long millis = Math.max(1, (System.nanoTime() - startedAt) / 1_000_000);
+            log.info("Room import finished: {} rows, {} created, {} rejected in {} ms", rows, created.size(), errors.size(), millis);
+            return new RoomImportResultDto(rows, created.size(), errors);
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            Set<Integer> existing = roomRepository.findExistingRoomNumbers(
+                    pending.stream().map(row -> row.room().getRoomNumber()).toList());
+            List<PendingRow> inserts = new ArrayList<>(pending.size());
+            for (PendingRow row : pending) {
+                if (existing.contains(row.room().getRoomNumber())) {
+                    errors.add(new RowError(row.row(), row.room().getRoomNumber(), "Room with this number already exists"));
+                } else {
+                    inserts.add(row);
+                }
+            }
+            pending.clear();
+            if (inserts.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    roomRepository.saveAll(inserts.stream().map(row -> new Room(row.room())).toList());
+                    roomRepository.flush();
+                });
+                inserts.forEach(row -> created.add(row.room().getRoomNumber()));
+            } catch (DataIntegrityViolationException e) {
+                log.warn("Room import chunk of {} rows rejected by the database", inserts.size(), e);
+                inserts.forEach(row -> errors.add(new RowError(row.row(), row.room().getRoomNumber(),
+                        "Rejected by the database together with its batch, retry this row")));
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.reservations.hotel.services;
+
+import com.reservations.hotel.exceptions.RoomLockTimeoutException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed table of fair locks striped by room id, serializing bookings of the same room within this instance.
+ * Rooms that hash to different stripes never contend; two rooms sharing a stripe only wait for each other's
+ * check-and-insert. Waiting is bounded by {@code hotel.booking.lock.timeout}.
+ */
+@Component
+@Slf4j
+public class RoomLockManager {
+    private final ReentrantLock[] stripes;
+    private final long timeoutNanos;
+    private final Timer acquired;
+    private final Timer timedOut;
+
+    public RoomLockManager(MeterRegistry meterRegistry,
+                           @Value("${hotel.booking.lock.stripes}") int stripes,
+                           @Value("${hotel.booking.lock.timeout}") Duration timeout) {
+        // Power of two so the stripe is a mask of the mixed hash
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock(true);
+        }
+        this.timeoutNanos = timeout.toNanos();
+        this.acquired = waitTimer(meterRegistry, "acquired");
+        this.timedOut = waitTimer(meterRegistry, "timeout");
+    }
+
+    /**
+     * Locks the room's stripe until the surrounding transaction has committed or rolled back, so the next
+     * booking of the room reads this one's row.
+     */
+    public void lockForTransaction(Long roomId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Room locks must be taken inside a transaction");
+        }
+        Lock lock = acquire(roomId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Locks the room's stripe, the caller must unlock the returned lock.
+     */
+    public Lock acquire(Long roomId) {
+        ReentrantLock lock = stripes[stripeOf(roomId)];
+        long start = System.nanoTime();
+        boolean locked;
+        try {
+            locked = lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            locked = false;
+        }
+        long waited = System.nanoTime() - start;
+        if (!locked) {
+            timedOut.record(waited, TimeUnit.NANOSECONDS);
+            log.warn("Timed out waiting for booking lock of room ID: {}", roomId);
+            throw new RoomLockTimeoutException("Room is being booked by another request, please retry");
+        }
+        acquired.record(waited, TimeUnit.NANOSECONDS);
+        return lock;
+    }
+
+    private int stripeOf(Long roomId) {
+        long h = roomId * 0x9E3779B97F4A7C15L; // Fibonacci hashing spreads sequential ids
+        return (int) (h >>> 32) & (stripes.length - 1);
+    }
+
+    private static Timer waitTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("reservations.room.lock.wait")
+                .description("Time spent waiting for a room booking lock")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
@@ -1,9 +1,11 @@
 package com.reservations.hotel.services;
 
+import com.reservations.hotel.dto.PageResponseDto;
 import com.reservations.hotel.dto.ReservationDateDto;
 import com.reservations.hotel.dto.RoomCreateDto;
 import com.reservations.hotel.dto.RoomResponseDto;
 import com.reservations.hotel.dto.RoomUpdateDto;
+import com.reservations.hotel.events.RoomChangedEvent;
 import com.reservations.hotel.exceptions.InvalidSearchParametersException;
 import com.reservations.hotel.exceptions.RoomAlreadyExistsException;
 import com.reservations.hotel.exceptions.RoomHasActiveReservationsException;
@@ -11,50 +13,66 @@ import com.reservations.hotel.exceptions.RoomNotFoundException;
 import com.reservations.hotel.models.ReservationStatus;
 import com.reservations.hotel.models.Room;
 import com.reservations.hotel.models.RoomType;
+import com.reservations.hotel.repositories.BookedInterval;
 import com.reservations.hotel.repositories.ReservationRepository;
 import com.reservations.hotel.repositories.RoomRepository;
+import com.reservations.hotel.repositories.RoomSpecifications;
 import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class RoomService {
+    private static final Sort BY_ROOM_NUMBER = Sort.by("roomNumber");
     private final RoomRepository roomRepository;
     private final ReservationRepository reservationRepository;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final RoomCatalogCache roomCatalogCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public RoomService(RoomRepository roomRepository, ReservationRepository reservationRepository) {
+    public RoomService(RoomRepository roomRepository, ReservationRepository reservationRepository, RoomAvailabilityIndex availabilityIndex,
+                       RoomCatalogCache roomCatalogCache, ApplicationEventPublisher eventPublisher) {
         this.roomRepository = roomRepository;
         this.reservationRepository = reservationRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.roomCatalogCache = roomCatalogCache;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<RoomResponseDto> getAllRoomsDto() {
-        return roomRepository.findAll().stream().map(this::convertToDto).sorted(Comparator.comparing(RoomResponseDto::getRoomNumber)).toList();
+        return convertToDtos(roomCatalogCache.getAll());
     }
     public List<Room> getAllRooms() {
-        return roomRepository.findAll();
+        return roomCatalogCache.getAll();
     }
 
     public RoomResponseDto getRoomByRoomNumber(Integer roomNumber) {
-        return roomRepository.findByRoomNumber(roomNumber).map(this::convertToDto)
+        return roomCatalogCache.getByRoomNumber(roomNumber).map(this::convertToDto)
                 .orElseThrow(() -> new RoomNotFoundException("Room not found with number: " + roomNumber));
     }
 
 
-    // Available rooms within a price range
+    // Answered from the in-memory index when the dates fall within its horizon, otherwise from the database
     public boolean isRoomAvailable(Long roomId, LocalDate checkInDate, LocalDate checkOutDate) {
+        if (availabilityIndex.covers(checkInDate, checkOutDate)) {
+            return availabilityIndex.isAvailable(roomId, checkInDate, checkOutDate);
+        }
         return !reservationRepository.existsConflictingReservation(roomId, checkInDate, checkOutDate);
     }
 
     public List<Room> getAllAvailableRooms(LocalDate startDate, LocalDate endDate) {
-        List<Room> allRooms = roomRepository.findAll();
-        return allRooms.stream()
-                .filter(room -> isRoomAvailable(room.getId(), startDate, endDate))
-                .sorted(Comparator.comparing(Room::getRoomNumber)).toList();
+        return getAvailableRoomsWithFilters(null, null, null, startDate, endDate);
     }
 
     @Transactional
@@ -65,6 +83,7 @@ public class RoomService {
             throw new RoomAlreadyExistsException("Room with this number already exists");
         }
         Room savedRoom = roomRepository.save(new Room(input));
+        eventPublisher.publishEvent(new RoomChangedEvent(savedRoom.getId(), List.of(savedRoom.getRoomNumber())));
         log.debug("Room created - Details: {}", savedRoom);
         return convertToDto(savedRoom);
     }
@@ -77,6 +96,7 @@ public class RoomService {
                     return new RoomNotFoundException("Room not found for id " + roomId);
                 }
         );
+        Integer previousRoomNumber = roomToUpdate.getRoomNumber();
         if (input.hasRoomNumber() &&
                 !roomToUpdate.getRoomNumber().equals(input.getRoomNumber())) {
             if (roomRepository.existsByRoomNumber(input.getRoomNumber())) {
@@ -100,6 +120,7 @@ public class RoomService {
             roomToUpdate.setDescription(input.getDescription());
         }
         Room room = roomRepository.save(roomToUpdate);
+        eventPublisher.publishEvent(new RoomChangedEvent(roomId, Stream.of(previousRoomNumber, room.getRoomNumber()).distinct().toList()));
         log.debug("Successfully updated room: id {}", roomId);
         return convertToDto(room);
     }
@@ -117,6 +138,7 @@ public class RoomService {
             throw new RoomHasActiveReservationsException("Cannot delete room with active reservations");
         }
         roomRepository.delete(roomToDelete);
+        eventPublisher.publishEvent(new RoomChangedEvent(roomId, List.of(roomToDelete.getRoomNumber())));
         log.info("Successfully deleted room: id {}", roomId);
     }
 
@@ -128,46 +150,97 @@ public class RoomService {
             RoomResponseDto room = getRoomByRoomNumber(roomNumber);
             return List.of(room);
         }
-        if ((checkInDate != null && checkOutDate == null) || (checkInDate == null && checkOutDate != null)) {
-            throw new InvalidSearchParametersException("Both checkIn and checkOut dates must be provided");
-        }
+        validateDateRange(checkInDate, checkOutDate);
         if(checkInDate != null) {
-            return getAvailableRoomsWithFilters(type, minCapacity, maxPricePerNight, checkInDate, checkOutDate).stream().map(this::convertToDto).toList();
+            return convertToDtos(getAvailableRoomsWithFilters(type, minCapacity, maxPricePerNight, checkInDate, checkOutDate));
         }else{
-            return getRoomsWithFilters(type, minCapacity, maxPricePerNight).stream().map(this::convertToDto).toList();
+            return convertToDtos(getRoomsWithFilters(type, minCapacity, maxPricePerNight));
+        }
+
+    }
+
+    // Keyset page ordered by roomNumber. Without dates the page is cut from the cached catalog,
+    // with dates availability is resolved in SQL so the LIMIT stays exact
+    public PageResponseDto<RoomResponseDto> getSpecificRoomsPage(Integer roomNumber, RoomType type, Integer minCapacity, Double maxPricePerNight, LocalDate checkInDate, LocalDate checkOutDate, String cursor, Integer limit) {
+        if (roomNumber != null) {
+            return new PageResponseDto<>(List.of(getRoomByRoomNumber(roomNumber)), null);
         }
+        validateDateRange(checkInDate, checkOutDate);
+        int pageSize = KeysetPaging.pageSize(limit);
+        Integer afterRoomNumber = cursor == null ? null : KeysetPaging.toRoomNumber(cursor);
+        List<Room> rooms;
+        if (checkInDate == null) {
+            rooms = roomCatalogCache.getAll().stream()
+                    .filter(room -> afterRoomNumber == null || room.getRoomNumber() > afterRoomNumber)
+                    .filter(room -> matches(room, type, minCapacity, maxPricePerNight))
+                    .limit(pageSize + 1)
+                    .toList();
+        } else {
+            Specification<Room> spec = RoomSpecifications.matching(type, minCapacity, maxPricePerNight)
+                    .and(RoomSpecifications.roomNumberAfter(afterRoomNumber))
+                    .and(RoomSpecifications.availableBetween(checkInDate, checkOutDate));
+            rooms = roomRepository.findBy(spec, query -> query.sortBy(BY_ROOM_NUMBER).limit(pageSize + 1).all());
+        }
+        String next = null;
+        if (rooms.size() > pageSize) {
+            rooms = rooms.subList(0, pageSize);
+            next = KeysetPaging.ofRoomNumber(rooms.get(pageSize - 1).getRoomNumber());
+        }
+        return new PageResponseDto<>(convertToDtos(rooms), next);
+    }
 
+    private void validateDateRange(LocalDate checkInDate, LocalDate checkOutDate) {
+        if ((checkInDate != null && checkOutDate == null) || (checkInDate == null && checkOutDate != null)) {
+            throw new InvalidSearchParametersException("Both checkIn and checkOut dates must be provided");
+        }
     }
 
+    // Cached catalog plus availability index when the dates are covered, otherwise one statement with a NOT EXISTS subquery
     private List<Room> getAvailableRoomsWithFilters(RoomType type, Integer minCapacity, Double maxPricePerNight, LocalDate checkInDate, LocalDate checkOutDate) {
-        List<Room> availableRooms = getAllAvailableRooms(checkInDate, checkOutDate);
-        return availableRooms.stream()
-                .filter(room -> (type == null || room.getType() == type) &&
-                        (minCapacity == null || room.getCapacity() >= minCapacity) &&
-                        (maxPricePerNight == null || room.getPricePerNight() <= maxPricePerNight))
-                .sorted(Comparator.comparing(Room::getRoomNumber))
-                .toList();
+        if (availabilityIndex.covers(checkInDate, checkOutDate)) {
+            return getRoomsWithFilters(type, minCapacity, maxPricePerNight).stream()
+                    .filter(room -> availabilityIndex.isAvailable(room.getId(), checkInDate, checkOutDate))
+                    .toList();
+        }
+        Specification<Room> filters = RoomSpecifications.matching(type, minCapacity, maxPricePerNight);
+        return roomRepository.findAll(filters.and(RoomSpecifications.availableBetween(checkInDate, checkOutDate)), BY_ROOM_NUMBER);
     }
     private List<Room> getRoomsWithFilters(RoomType type, Integer minCapacity, Double maxPricePerNight) {
-        return roomRepository.findAll().stream()
-                .filter(room -> (type == null || room.getType() == type) &&
-                        (minCapacity == null || room.getCapacity() >= minCapacity) &&
-                        (maxPricePerNight == null || room.getPricePerNight() <= maxPricePerNight))
-                .sorted(Comparator.comparing(Room::getRoomNumber))
+        return roomCatalogCache.getAll().stream()
+                .filter(room -> matches(room, type, minCapacity, maxPricePerNight))
                 .toList();
     }
 
+    private static boolean matches(Room room, RoomType type, Integer minCapacity, Double maxPricePerNight) {
+        return (type == null || room.getType() == type) &&
+                (minCapacity == null || room.getCapacity() >= minCapacity) &&
+                (maxPricePerNight == null || room.getPricePerNight() <= maxPricePerNight);
+    }
+
     public Room getRoomByRoomId(Long roomId) {
-        return roomRepository.findById(roomId)
+        return roomCatalogCache.getById(roomId)
                 .orElseThrow(() -> new RoomNotFoundException("Room not found with id: " + roomId));
     }
 
     private RoomResponseDto convertToDto(Room room) {
-        List<ReservationDateDto> bookedDates = reservationRepository.findByRoomId(room.getId()).stream()
-                .filter(reservation -> !List.of(ReservationStatus.CANCELLED, ReservationStatus.COMPLETED)
-                        .contains(reservation.getStatus()))
-                .map(reservation -> new ReservationDateDto(reservation.getCheckInDate(), reservation.getCheckOutDate()))
+        return convertToDtos(List.of(room)).get(0);
+    }
+
+    private List<RoomResponseDto> convertToDtos(List<Room> rooms) {
+        Map<Long, List<ReservationDateDto>> bookedDates = loadBookedDates(rooms.stream().map(Room::getId).toList());
+        return rooms.stream()
+                .map(room -> new RoomResponseDto(room, bookedDates.getOrDefault(room.getId(), List.of())))
                 .toList();
-        return new RoomResponseDto(room, bookedDates);
+    }
+
+    // One query for the whole listing, only active stays that have not ended yet
+    private Map<Long, List<ReservationDateDto>> loadBookedDates(Collection<Long> roomIds) {
+        if (roomIds.isEmpty()) {
+            return Map.of();
+        }
+        return reservationRepository.findActiveIntervalsByRoomIds(roomIds, LocalDate.now()).stream()
+                .collect(Collectors.groupingBy(BookedInterval::getRoomId,
+                        Collectors.mapping(interval -> new ReservationDateDto(interval.getCheckInDate(), interval.getCheckOutDate()),
+                                Collectors.toList())));
     }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.reservations.hotel.services;
+
+import com.reservations.hotel.dto.DateSuggestionDto;
+import com.reservations.hotel.exceptions.InvalidSearchParametersException;
+import com.reservations.hotel.exceptions.RoomNotFoundException;
+import com.reservations.hotel.models.Room;
+import com.reservations.hotel.repositories.BookedInterval;
+import com.reservations.hotel.repositories.ReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Closest free windows of the requested length, for the requested room and every room of the same type.
+ * Booked intervals in a search window around the request are loaded once, sorted by room and check-in date,
+ * and each room's free gaps are found in a single pass; every gap long enough yields the start closest to the request.
+ */
+@Service
+@Slf4j
+public class RoomSuggestionService {
+    private static final int DEFAULT_SUGGESTIONS = 5;
+    private static final int MAX_SUGGESTIONS = 20;
+    private final ReservationRepository reservationRepository;
+    private final RoomCatalogCache roomCatalogCache;
+    private final int windowDays;
+
+    public RoomSuggestionService(ReservationRepository reservationRepository,
+                                 RoomCatalogCache roomCatalogCache,
+                                 @Value("${hotel.availability.suggestion-window-days}") int windowDays) {
+        this.reservationRepository = reservationRepository;
+        this.roomCatalogCache = roomCatalogCache;
+        this.windowDays = windowDays;
+    }
+
+    public List<DateSuggestionDto> suggest(Long roomId, LocalDate checkInDate, LocalDate checkOutDate, Integer limit) {
+        if (!checkInDate.isBefore(checkOutDate)) {
+            throw new InvalidSearchParametersException("checkInDate must be before checkOutDate");
+        }
+        Room requested = roomCatalogCache.getById(roomId)
+                .orElseThrow(() -> new RoomNotFoundException("Room not found"));
+        long nights = checkOutDate.toEpochDay() - checkInDate.toEpochDay();
+        LocalDate today = LocalDate.now();
+        LocalDate windowStart = checkInDate.minusDays(windowDays).isBefore(today) ? today : checkInDate.minusDays(windowDays);
+        LocalDate windowEnd = checkOutDate.plusDays(windowDays);
+
+        Map<Long, Room> rooms = roomCatalogCache.getAll().stream()
+                .filter(room -> room.getType() == requested.getType())
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+        Map<Long, List<BookedInterval>> intervalsByRoom = reservationRepository
+                .findActiveIntervalsByRoomIdsOverlapping(rooms.keySet(), windowStart, windowEnd).stream()
+                .collect(Collectors.groupingBy(BookedInterval::getRoomId));
+
+        List<DateSuggestionDto> suggestions = new ArrayList<>();
+        for (Room room : rooms.values()) {
+            LocalDate freeFrom = windowStart;
+            for (BookedInterval interval : intervalsByRoom.getOrDefault(room.getId(), List.of())) {
+                addClosest(suggestions, room, freeFrom, interval.getCheckInDate(), checkInDate, nights);
+                if (interval.getCheckOutDate().isAfter(freeFrom)) {
+                    freeFrom = interval.getCheckOutDate();
+                }
+            }
+            addClosest(suggestions, room, freeFrom, windowEnd, checkInDate, nights);
+        }
+
+        int size = limit == null ? DEFAULT_SUGGESTIONS : Math.clamp(limit, 1, MAX_SUGGESTIONS);
+        return suggestions.stream()
+                .sorted(Comparator.comparingLong((DateSuggestionDto suggestion) -> Math.abs(suggestion.getDaysShifted()))
+                        .thenComparing(suggestion -> !suggestion.getRoomId().equals(roomId))
+                        .thenComparing(DateSuggestionDto::getRoomNumber)
+                        .thenComparing(DateSuggestionDto::getCheckInDate))
+                .limit(size)
+                .toList();
+    }
+
+    // Gap is [gapStart, gapEnd), the suggested stay is the one inside it starting closest to the requested check-in
+    private void addClosest(List<DateSuggestionDto> suggestions, Room room, LocalDate gapStart, LocalDate gapEnd, LocalDate checkInDate, long nights) {
+        LocalDate latestStart = gapEnd.minusDays(nights);
+        if (latestStart.isBefore(gapStart)) {
+            return;
+        }
+        LocalDate start = checkInDate.isBefore(gapStart) ? gapStart : checkInDate.isAfter(latestStart) ? latestStart : checkInDate;
+        suggestions.add(new DateSuggestionDto(room, start, start.plusDays(nights), start.toEpochDay() - checkInDate.toEpochDay()));
+    }
+}
@@ -0,0 +1,178 @@
+package com.reservations.hotel.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps up to {@code hotel.email.smtp.pool.max-connections} connected and authenticated SMTP transports, so the
+ * TCP, STARTTLS and AUTH handshake is paid once per connection instead of once per message. The most recently
+ * used idle connection is handed out first; one idle for a while is checked with NOOP before reuse, and one idle
+ * past the idle timeout is closed, on borrow or by the periodic eviction.
+ */
+@Service
+@Slf4j
+public class SmtpTransportPool {
+    private final Session session;
+    private final String username;
+    private final String password;
+    private final int maxConnections;
+    private final long idleTimeoutNanos;
+    private final long validateAfterNanos;
+    private final Duration borrowTimeout;
+    private final Semaphore permits; // one per borrowed connection
+    private final Deque<IdleConnection> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger open = new AtomicInteger();
+    private final Counter connects;
+    private final Counter discarded;
+    private volatile boolean closed;
+
+    private record IdleConnection(Transport transport, long idleSinceNanos) {
+    }
+
+    public SmtpTransportPool(Session session,
+                             MeterRegistry meterRegistry,
+                             @Value("${spring.mail.username}") String username,
+                             @Value("${spring.mail.password}") String password,
+                             @Value("${hotel.email.smtp.pool.max-connections}") int maxConnections,
+                             @Value("${hotel.email.smtp.pool.idle-timeout}") Duration idleTimeout,
+                             @Value("${hotel.email.smtp.pool.validate-after}") Duration validateAfter,
+                             @Value("${hotel.email.smtp.pool.borrow-timeout}") Duration borrowTimeout) {
+        this.session = session;
+        this.username = username;
+        this.password = password;
+        this.maxConnections = maxConnections;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.validateAfterNanos = validateAfter.toNanos();
+        this.borrowTimeout = borrowTimeout;
+        this.permits = new Semaphore(maxConnections, true);
+        this.connects = Counter.builder("email.smtp.connects")
+                .description("SMTP connections opened")
+                .register(meterRegistry);
+        this.discarded = Counter.builder("email.smtp.discarded")
+                .description("SMTP connections closed as broken, stale or surplus")
+                .register(meterRegistry);
+        Gauge.builder("email.smtp.connections", open, AtomicInteger::get)
+                .description("Open SMTP connections")
+                .tag("state", "open")
+                .register(meterRegistry);
+        Gauge.builder("email.smtp.connections", idle, Deque::size)
+                .description("Open SMTP connections")
+                .tag("state", "idle")
+                .register(meterRegistry);
+    }
+
+    public Session session() {
+        return session;
+    }
+
+    /**
+     * Hands out a connected transport, to be given back with {@link #release}.
+     *
+     * @throws MessagingException if no connection frees up within the borrow timeout or connecting fails
+     */
+    public Transport borrow() throws MessagingException {
+        try {
+            if (!permits.tryAcquire(borrowTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new MessagingException("No SMTP connection available within " + borrowTimeout);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted waiting for an SMTP connection", e);
+        }
+        try {
+            IdleConnection connection;
+            while ((connection = idle.pollFirst()) != null) {
+                if (isUsable(connection)) {
+                    return connection.transport();
+                }
+                discard(connection.transport());
+            }
+            return connect();
+        } catch (MessagingException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Gives a borrowed transport back; broken ones, after a connection level error, are closed.
+     */
+    public void release(Transport transport, boolean broken) {
+        try {
+            if (broken || closed || idle.size() >= maxConnections) {
+                discard(transport);
+            } else {
+                idle.offerFirst(new IdleConnection(transport, System.nanoTime()));
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    // Run by EmailOutboxDispatcher on its SMTP thread
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (IdleConnection connection : idle) {
+            // Removal fails if a borrower took it in the meantime
+            if (now - connection.idleSinceNanos() > idleTimeoutNanos && idle.removeFirstOccurrence(connection)) {
+                discard(connection.transport());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        IdleConnection connection;
+        while ((connection = idle.pollFirst()) != null) {
+            discard(connection.transport());
+        }
+    }
+
+    private boolean isUsable(IdleConnection connection) {
+        long idleNanos = System.nanoTime() - connection.idleSinceNanos();
+        if (idleNanos > idleTimeoutNanos) {
+            return false;
+        }
+        // isConnected sends a NOOP, skipped for connections that were just in use
+        return idleNanos < validateAfterNanos || connection.transport().isConnected();
+    }
+
+    private Transport connect() throws MessagingException {
+        Transport transport = session.getTransport("smtp");
+        transport.connect(blankToNull(username), blankToNull(password));
+        open.incrementAndGet();
+        connects.increment();
+        log.debug("Opened SMTP connection, {} open", open.get());
+        return transport;
+    }
+
+    private void discard(Transport transport) {
+        try {
+            transport.close();
+        } catch (MessagingException e) {
+            log.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+        open.decrementAndGet();
+        discarded.increment();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,52 @@
+package com.reservations.hotel.services;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket holding up to {@code capacity} tokens and refilled at {@code capacity} per {@code period}. The whole
+ * state is one timestamp, the time at which the bucket would be full again had nothing else been taken (the
+ * generic cell rate algorithm), so taking a token is a single compare-and-set with no lock and no refill timer.
+ * Times are {@link System#nanoTime()} values.
+ */
+public final class TokenBucket {
+    private final long intervalNanos; // refill time of one token
+    private final long burstNanos;
+    private final Duration period;
+    private final AtomicLong fullAt;
+
+    public TokenBucket(int capacity, Duration period, long nowNanos) {
+        if (capacity < 1 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("Capacity and period must be positive");
+        }
+        this.intervalNanos = Math.max(1, period.toNanos() / capacity);
+        this.burstNanos = intervalNanos * capacity;
+        this.period = period;
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a token if one is left.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until the next one is available
+     */
+    public long tryConsume(long nowNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long start = current - nowNanos > 0 ? current : nowNanos; // a full bucket does not bank more tokens
+            long next = start + intervalNanos;
+            long wait = next - nowNanos - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Idle this long, the bucket is full again and can be dropped and recreated without changing anything
+    public Duration period() {
+        return period;
+    }
+}
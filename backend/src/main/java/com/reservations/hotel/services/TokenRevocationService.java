@@ -0,0 +1,117 @@
+package com.reservations.hotel.services;
+
+import com.reservations.hotel.repositories.RevokedTokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Ids of revoked tokens, stored in {@code revoked_tokens} until the tokens expire. Lookups go to an in-memory Bloom
+ * filter of those ids first, so a token that was never revoked is accepted without a database round trip; only a
+ * filter hit is confirmed against the table. Revocations made on other instances are pulled in every sync interval,
+ * and the filter is rebuilt from the unexpired ids periodically, which drops expired ones and resizes it.
+ */
+@Service
+@Slf4j
+public class TokenRevocationService {
+    private static final String PURGE_JOB_NAME = "tokens.revoked-purge";
+    // Syncs reload everything revoked over this many intervals, covering late commits and a missed run
+    private static final int SYNC_OVERLAP = 3;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JobLockService jobLockService;
+    private final Counter negativeChecks;
+    private final Counter revokedChecks;
+    private final Counter falsePositiveChecks;
+    private final Counter unloadedChecks;
+    private final long expectedTokens;
+    private final double falsePositiveRate;
+    private final double syncWindowSeconds;
+    private volatile BloomFilter filter; // null until loaded, lookups go to the database meanwhile
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  JobLockService jobLockService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${security.jwt.revocation.expected-tokens}") long expectedTokens,
+                                  @Value("${security.jwt.revocation.false-positive-rate}") double falsePositiveRate,
+                                  @Value("${security.jwt.revocation.sync-interval-ms}") long syncIntervalMs) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.jobLockService = jobLockService;
+        this.negativeChecks = checks(meterRegistry, "negative");
+        this.revokedChecks = checks(meterRegistry, "revoked");
+        this.falsePositiveChecks = checks(meterRegistry, "false_positive");
+        this.unloadedChecks = checks(meterRegistry, "not_loaded");
+        this.expectedTokens = expectedTokens;
+        this.falsePositiveRate = falsePositiveRate;
+        this.syncWindowSeconds = SYNC_OVERLAP * syncIntervalMs / 1000.0;
+        BloomFilter.create(expectedTokens, falsePositiveRate); // fail at startup on bad settings
+    }
+
+    public boolean isRevoked(String jti) {
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(jti)) {
+            negativeChecks.increment();
+            return false;
+        }
+        boolean revoked = revokedTokenRepository.existsById(jti);
+        (revoked ? revokedChecks : current == null ? unloadedChecks : falsePositiveChecks).increment();
+        return revoked;
+    }
+
+    /**
+     * @return false if the token had already been revoked
+     */
+    public boolean revoke(String jti, Instant expiresAt) {
+        // Committed before it is added, a rebuild that swaps the filter in between picks it up in its sync
+        boolean revoked = revokedTokenRepository.revoke(jti, LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault())) == 1;
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(jti);
+        }
+        return revoked;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.rebuild-interval-ms}",
+            initialDelayString = "${security.jwt.revocation.rebuild-interval-ms}")
+    public void rebuild() {
+        List<String> unexpired = revokedTokenRepository.findUnexpiredIds(LocalDateTime.now());
+        BloomFilter rebuilt = BloomFilter.create(Math.max(expectedTokens, 2L * unexpired.size()), falsePositiveRate);
+        unexpired.forEach(rebuilt::put);
+        filter = rebuilt;
+        sync();
+        log.info("Loaded {} revoked token ids into a {} bit filter", unexpired.size(), rebuilt.bitCount());
+    }
+
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.sync-interval-ms}")
+    public void sync() {
+        BloomFilter current = filter;
+        if (current != null) {
+            revokedTokenRepository.findRevokedWithin(syncWindowSeconds).forEach(current::put);
+        }
+    }
+
+    // Any instance may purge, the lease only avoids doing it several times over
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.rebuild-interval-ms}",
+            initialDelayString = "${security.jwt.revocation.rebuild-interval-ms}")
+    public void purgeExpired() {
+        jobLockService.runExclusive(PURGE_JOB_NAME, () ->
+                log.info("Purged {} expired revoked token ids", revokedTokenRepository.deleteExpired(LocalDateTime.now())));
+    }
+
+    private static Counter checks(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("jwt.revocation.checks")
+                .description("Revocation checks by how they were answered")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
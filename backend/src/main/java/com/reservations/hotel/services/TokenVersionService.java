@@ -0,0 +1,48 @@
+package com.reservations.hotel.services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.reservations.hotel.exceptions.UserNotFoundException;
+import com.reservations.hotel.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Current token version per user, checked on every authenticated request. Versions are cached briefly; a revoke
+ * takes effect at once on the instance that handled it and within {@code security.jwt.version-cache-ttl} on others.
+ */
+@Service
+@Slf4j
+public class TokenVersionService {
+    private final UserRepository userRepository;
+    private final AsyncCache<Long, Long> versions;
+
+    public TokenVersionService(UserRepository userRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${security.jwt.version-cache-size}") long cacheSize,
+                               @Value("${security.jwt.version-cache-ttl}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.versions = Caffeine.newBuilder().maximumSize(cacheSize).expireAfterWrite(ttl).recordStats().buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "jwt.tokenVersions");
+    }
+
+    // False for deleted users as well
+    public boolean isCurrent(Long userId, long tokenVersion) {
+        Long current = AsyncCacheLoads.get(versions, userId, id -> userRepository.findTokenVersionById(id).orElse(null));
+        return current != null && current == tokenVersion;
+    }
+
+    public void revokeTokens(Long userId) {
+        // Committed by the repository before the cache entry is dropped, so it cannot be reloaded stale
+        if (userRepository.incrementTokenVersion(userId) == 0) {
+            throw new UserNotFoundException("User not found");
+        }
+        versions.synchronous().invalidate(userId);
+        log.info("Revoked all tokens of user ID: {}", userId);
+    }
+}
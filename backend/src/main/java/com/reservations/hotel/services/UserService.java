@@ -50,9 +50,8 @@ public class UserService {
             log.warn("User with email {} not found", email);
             return new UserNotFoundException("User not found");});
     }
-    public UserResponseDto getCurrentUserDto(String email) {
-        User user = getCurrentUser(email);
-        return convertToDto(user);
+    public UserResponseDto getUserDto(Long id) {
+        return convertToDto(getUserById(id));
     }
 
     private UserResponseDto convertToDto(User user) {
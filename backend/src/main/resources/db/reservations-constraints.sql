@@ -0,0 +1,49 @@
+-- Runs after Hibernate has updated the schema (spring.jpa.defer-datasource-initialization) on every startup,
+-- so every statement must be idempotent. Statements are separated by @@ because the DO block contains semicolons.
+
+-- Lets a GiST index combine equality on room_id with range overlap
+CREATE EXTENSION IF NOT EXISTS btree_gist
+@@
+
+-- Half-open stay [check_in_date, check_out_date), maintained by PostgreSQL and not mapped by the entity
+ALTER TABLE reservations
+    ADD COLUMN IF NOT EXISTS stay daterange
+    GENERATED ALWAYS AS (daterange(check_in_date, check_out_date, '[)')) STORED
+@@
+
+-- No two active reservations of the same room may share a night, whatever the isolation level.
+-- A database written before this constraint may already hold double bookings; startup then stops here naming
+-- them, because adding the constraint would fail anyway. See "Overlapping reservations" in the README.
+DO $$
+DECLARE
+    conflicts text;
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'reservations_no_overlap') THEN
+        SELECT string_agg(format('room %s: %s and %s', room_id, first_id, second_id), '; ')
+        INTO conflicts
+        FROM (SELECT a.room_id, a.id AS first_id, b.id AS second_id
+              FROM reservations a
+              JOIN reservations b ON b.room_id = a.room_id AND b.id > a.id AND b.stay && a.stay
+              WHERE a.status NOT IN ('CANCELLED', 'COMPLETED') AND b.status NOT IN ('CANCELLED', 'COMPLETED')
+              ORDER BY a.room_id, a.id, b.id
+              LIMIT 20) pairs;
+        IF conflicts IS NOT NULL THEN
+            RAISE EXCEPTION 'Cannot add reservations_no_overlap, active reservations overlap (first 20 pairs by id): %', conflicts
+                USING HINT = 'Cancel one reservation of each pair, see "Overlapping reservations" in the README';
+        END IF;
+        ALTER TABLE reservations
+            ADD CONSTRAINT reservations_no_overlap
+            EXCLUDE USING gist (room_id WITH =, stay WITH &&)
+            WHERE (status NOT IN ('CANCELLED', 'COMPLETED'));
+    END IF;
+END
+$$
+@@
+
+-- ddl-auto=update never tightens an existing column, so rows written before created_at was required get the
+-- epoch: they page first in creation order, ordered by id among themselves, and count as old PENDING holds
+UPDATE reservations SET created_at = TIMESTAMP '1970-01-01 00:00:00' WHERE created_at IS NULL
+@@
+
+ALTER TABLE reservations ALTER COLUMN created_at SET NOT NULL
+@@
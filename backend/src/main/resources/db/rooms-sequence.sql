@@ -0,0 +1,6 @@
+-- Room ids come from the pooled rooms_seq (allocationSize 50). When an existing database switches over from
+-- IDENTITY the sequence starts at 1, so move it past the highest id; afterwards this is a no-op.
+-- Terminated with @@ like reservations-constraints.sql, without it the statement would be split per line.
+SELECT setval('rooms_seq', (SELECT MAX(id) FROM rooms))
+WHERE (SELECT last_value FROM rooms_seq) < (SELECT COALESCE(MAX(id), 0) FROM rooms)
+@@
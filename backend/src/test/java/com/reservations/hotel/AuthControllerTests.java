@@ -6,8 +6,13 @@ import com.reservations.hotel.config.TestSecurityConfig;
 import com.reservations.hotel.controllers.AuthController;
 import com.reservations.hotel.dto.RegisterDto;
 import com.reservations.hotel.dto.UserResponseDto;
+import com.reservations.hotel.models.User;
+import com.reservations.hotel.exceptions.HashingCapacityExceededException;
+import com.reservations.hotel.exceptions.RateLimitExceededException;
+import com.reservations.hotel.services.AuthRateLimiter;
 import com.reservations.hotel.services.AuthService;
 import com.reservations.hotel.services.JwtService;
+import com.reservations.hotel.services.RefreshTokenService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -21,9 +26,16 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.time.Duration;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 
@@ -46,6 +58,12 @@ public class AuthControllerTests {
     @MockitoBean
     private JwtService jwtService;
 
+    @MockitoBean
+    private RefreshTokenService refreshTokenService;
+
+    @MockitoBean
+    private AuthRateLimiter rateLimiter;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -75,5 +93,48 @@ public class AuthControllerTests {
         verify(authService).registerUser(any(RegisterDto.class));
     }
 
+    @Test
+    void login_ShouldReturnTooManyRequests_BeforeAuthenticating_WhenRateLimited() throws Exception {
+        doThrow(new RateLimitExceededException("Too many requests, try again later", Duration.ofMillis(12_300)))
+                .when(rateLimiter).check(eq(AuthRateLimiter.Endpoint.LOGIN), anyString(), eq("test@example.com"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"test@example.com\",\"password\":\"password123\"}"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "13"));
+
+        verifyNoInteractions(authService, jwtService);
+    }
+
+    @Test
+    void login_ShouldReturnServiceUnavailable_WhenPasswordHashingIsSaturated() throws Exception {
+        when(authService.authenticate(any())).thenThrow(new HashingCapacityExceededException("Server is busy, try again shortly"));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"test@example.com\",\"password\":\"password123\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void refresh_ShouldReturnNewTokenPair_WhenRefreshTokenIsValid() throws Exception {
+        User user = new User("test@example.com", "password");
+        user.setId(1L);
+        when(refreshTokenService.rotate("old-refresh")).thenReturn(user);
+        when(jwtService.generateToken(user)).thenReturn("new-access");
+        when(jwtService.generateRefreshToken(user)).thenReturn("new-refresh");
+        when(jwtService.getExpirationTime()).thenReturn(900000L);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"old-refresh\"}"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.token").value("new-access"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.refreshToken").value("new-refresh"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.expiresIn").value(900000));
+    }
+
 
 }
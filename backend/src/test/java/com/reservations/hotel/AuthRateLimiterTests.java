@@ -0,0 +1,82 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.exceptions.RateLimitExceededException;
+import com.reservations.hotel.services.AuthRateLimiter;
+import com.reservations.hotel.services.TokenBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthRateLimiterTests {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AuthRateLimiter rateLimiter = new AuthRateLimiter(meterRegistry, true, 1000,
+            30, Duration.ofMinutes(1), 5, Duration.ofMinutes(1), 5, Duration.ofMinutes(15), 3, Duration.ofMinutes(15));
+
+    @Test
+    void tokenBucket_ShouldAllowBurst_ThenRefillOneTokenPerInterval() {
+        TokenBucket bucket = new TokenBucket(5, Duration.ofSeconds(10), 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryConsume(0));
+        }
+        assertEquals(2 * SECOND, bucket.tryConsume(0));
+        assertEquals(SECOND, bucket.tryConsume(SECOND));
+        assertEquals(0, bucket.tryConsume(2 * SECOND));
+        assertEquals(2 * SECOND, bucket.tryConsume(2 * SECOND));
+        // Idle for a long time the bucket holds no more than its capacity
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, bucket.tryConsume(1000 * SECOND));
+        }
+        assertTrue(bucket.tryConsume(1000 * SECOND) > 0);
+    }
+
+    @Test
+    void tokenBucket_ShouldHandOutExactlyCapacity_UnderContention() throws Exception {
+        TokenBucket bucket = new TokenBucket(100, Duration.ofHours(1), System.nanoTime());
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    if (bucket.tryConsume(System.nanoTime()) == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(100, granted.get());
+    }
+
+    @Test
+    void check_ShouldLimitPerEmail_AcrossCaseAndClientIps() {
+        for (int i = 0; i < 5; i++) {
+            rateLimiter.check(AuthRateLimiter.Endpoint.VERIFY, "10.0.0." + i, i % 2 == 0 ? "victim@example.com" : " Victim@Example.com");
+        }
+
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class,
+                () -> rateLimiter.check(AuthRateLimiter.Endpoint.VERIFY, "10.0.0.99", "victim@example.com"));
+
+        assertTrue(ex.getRetryAfter().compareTo(Duration.ofMinutes(2)) > 0);
+        // Other accounts and other endpoints have their own buckets
+        rateLimiter.check(AuthRateLimiter.Endpoint.VERIFY, "10.0.0.99", "other@example.com");
+        rateLimiter.check(AuthRateLimiter.Endpoint.LOGIN, "10.0.0.99", "victim@example.com");
+        assertEquals(1, meterRegistry.get("auth.rate_limited").tag("endpoint", "verify").tag("scope", "email").counter().count());
+    }
+}
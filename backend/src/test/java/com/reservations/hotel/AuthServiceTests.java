@@ -4,11 +4,11 @@ import com.reservations.hotel.dto.LoginDto;
 import com.reservations.hotel.dto.RegisterDto;
 import com.reservations.hotel.dto.UserResponseDto;
 import com.reservations.hotel.dto.VerifyDto;
+import com.reservations.hotel.exceptions.InvalidCredentialsException;
 import com.reservations.hotel.exceptions.UserAlreadyExistsException;
 import com.reservations.hotel.models.User;
 import com.reservations.hotel.repositories.UserRepository;
 import com.reservations.hotel.services.EmailService;
-import jakarta.mail.MessagingException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -16,7 +16,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.reservations.hotel.services.AuthService;
 
 import java.util.Optional;
@@ -36,19 +37,21 @@ public class AuthServiceTests {
     private PasswordEncoder passwordEncoder;
 
     @Mock
-    private AuthenticationManager authenticationManager;
+    private TransactionTemplate transactionTemplate;
 
     @InjectMocks
     private AuthService authService;
 
     @Test
-    void registerUser_ShouldSuccessfullyRegisterUser_WhenDataIsValid() throws MessagingException {
+    void registerUser_ShouldSuccessfullyRegisterUser_WhenDataIsValid() {
         RegisterDto registerDto = new RegisterDto();
         registerDto.setEmail("test@example.com");
         registerDto.setPassword("password123");
 
         when(userRepository.existsByEmail(anyString())).thenReturn(false);
         when(passwordEncoder.encode(anyString())).thenReturn("encodedPassword");
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
 
         when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
@@ -68,7 +71,7 @@ public class AuthServiceTests {
         // sprawdzamy, że save i emailService zostały wywołane
         verify(userRepository).existsByEmail("test@example.com");
         verify(passwordEncoder).encode("password123");
-        verify(emailService).sendVerificationEmail(
+        verify(emailService).queueEmail(
                 eq(savedUser.getEmail()),
                 anyString(),
                 anyString()
@@ -81,7 +84,7 @@ public class AuthServiceTests {
 
 
     @Test
-    void registerUser_ShouldThrowException_WhenUserAlreadyExists() throws MessagingException {
+    void registerUser_ShouldThrowException_WhenUserAlreadyExists() {
         RegisterDto registerDto = new RegisterDto();
         registerDto.setEmail("existing@example.com");
         registerDto.setPassword("password123");
@@ -95,7 +98,7 @@ public class AuthServiceTests {
         assertEquals("User with this email already exists", exception.getMessage());
 
         verify(userRepository, never()).save(any(User.class));
-        verify(emailService, never()).sendVerificationEmail(anyString(), anyString(), anyString());
+        verify(emailService, never()).queueEmail(anyString(), anyString(), anyString());
     }
 
     @Test
@@ -110,12 +113,53 @@ public class AuthServiceTests {
         mockUser.setEnabled(true);
 
         when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(mockUser));
+        when(passwordEncoder.matches("password123", "hashedPassword")).thenReturn(true);
 
         User result = authService.authenticate(loginDto);
-        assertNotNull(result);
-        assertEquals("test@example.com", result.getEmail());
-        verify(authenticationManager).authenticate(any());
+        assertSame(mockUser, result);
+        // One lookup and one hash check, nothing else touches the user
         verify(userRepository).findByEmail("test@example.com");
+        verify(passwordEncoder).matches("password123", "hashedPassword");
+        verify(passwordEncoder, never()).encode(anyString());
+        verifyNoMoreInteractions(userRepository);
+    }
+
+    @Test
+    void authenticate_ShouldThrowInvalidCredentials_WhenPasswordDoesNotMatch() {
+        LoginDto loginDto = new LoginDto();
+        loginDto.setEmail("test@example.com");
+        loginDto.setPassword("wrong");
+
+        User mockUser = new User("test@example.com", "hashedPassword");
+        mockUser.setEnabled(true);
+
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(mockUser));
+        when(passwordEncoder.matches("wrong", "hashedPassword")).thenReturn(false);
+
+        assertThrows(InvalidCredentialsException.class, () -> authService.authenticate(loginDto));
+        verify(passwordEncoder, never()).upgradeEncoding(anyString());
+    }
+
+    @Test
+    void authenticate_ShouldRehashPassword_WhenStoredHashUsesALowerCost() {
+        LoginDto loginDto = new LoginDto();
+        loginDto.setEmail("test@example.com");
+        loginDto.setPassword("password123");
+
+        User mockUser = new User("test@example.com", "$2a$10$old");
+        mockUser.setId(1L);
+        mockUser.setEnabled(true);
+
+        when(userRepository.findByEmail(anyString())).thenReturn(Optional.of(mockUser));
+        when(passwordEncoder.matches("password123", "$2a$10$old")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("$2a$10$old")).thenReturn(true);
+        when(passwordEncoder.encode("password123")).thenReturn("$2a$12$new");
+        when(userRepository.updatePassword(1L, "$2a$10$old", "$2a$12$new")).thenReturn(1);
+
+        User result = authService.authenticate(loginDto);
+
+        assertEquals("$2a$12$new", result.getPassword());
+        verify(userRepository).updatePassword(1L, "$2a$10$old", "$2a$12$new");
     }
 
     @Test
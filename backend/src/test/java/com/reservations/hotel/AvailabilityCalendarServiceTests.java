@@ -0,0 +1,67 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.dto.AvailabilityCalendarDto;
+import com.reservations.hotel.exceptions.InvalidSearchParametersException;
+import com.reservations.hotel.models.Room;
+import com.reservations.hotel.models.RoomType;
+import com.reservations.hotel.repositories.ReservationRepository;
+import com.reservations.hotel.services.AvailabilityCalendarService;
+import com.reservations.hotel.services.RoomCatalogCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.reservations.hotel.TestProjections.interval;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AvailabilityCalendarServiceTests {
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private RoomCatalogCache roomCatalogCache;
+
+    private AvailabilityCalendarService service;
+    private final LocalDate from = LocalDate.of(2030, 1, 1);
+
+    @BeforeEach
+    void setUp() {
+        service = new AvailabilityCalendarService(reservationRepository, roomCatalogCache, 90);
+    }
+
+    @Test
+    void getCalendar_ShouldRunLengthEncodeNights_WhenReservationsOverlapRange() {
+        when(roomCatalogCache.getAll()).thenReturn(List.of(room(1L, 101), room(2L, 102)));
+        LocalDate to = from.plusDays(10);
+        when(reservationRepository.findActiveIntervalsOverlapping(from, to)).thenReturn(List.of(
+                interval(1L, from.minusDays(2), from.plusDays(2)),
+                interval(1L, from.plusDays(2), from.plusDays(4)),
+                interval(1L, from.plusDays(8), from.plusDays(20))));
+
+        AvailabilityCalendarDto calendar = service.getCalendar(from, to, null);
+
+        assertEquals(10, calendar.getNights());
+        assertEquals("O4F4O2", calendar.getRooms().get(0).getNights());
+        assertEquals("F10", calendar.getRooms().get(1).getNights());
+    }
+
+    @Test
+    void getCalendar_ShouldThrow_WhenRangeInvalid() {
+        assertThrows(InvalidSearchParametersException.class, () -> service.getCalendar(from, from.plusDays(91), RoomType.SINGLE));
+        assertThrows(InvalidSearchParametersException.class, () -> service.getCalendar(from, from, RoomType.SINGLE));
+    }
+
+    private Room room(Long id, int roomNumber) {
+        Room room = new Room();
+        room.setId(id);
+        room.setRoomNumber(roomNumber);
+        room.setType(RoomType.SINGLE);
+        return room;
+    }
+}
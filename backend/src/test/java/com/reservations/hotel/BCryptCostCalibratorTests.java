@@ -0,0 +1,24 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.config.BCryptCostCalibrator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BCryptCostCalibratorTests {
+
+    @Test
+    void strengthFor_ShouldPickHighestCostWithinTarget() {
+        // 60 ms at cost 10: 11 -> 120 ms, 12 -> 240 ms, 13 -> 480 ms
+        assertEquals(12, BCryptCostCalibrator.strengthFor(Duration.ofMillis(250), Duration.ofMillis(60)));
+        assertEquals(13, BCryptCostCalibrator.strengthFor(Duration.ofMillis(480), Duration.ofMillis(60)));
+    }
+
+    @Test
+    void strengthFor_ShouldStayWithinBounds() {
+        assertEquals(BCryptCostCalibrator.MIN_STRENGTH, BCryptCostCalibrator.strengthFor(Duration.ofMillis(10), Duration.ofMillis(60)));
+        assertEquals(BCryptCostCalibrator.MAX_STRENGTH, BCryptCostCalibrator.strengthFor(Duration.ofMinutes(10), Duration.ofMillis(1)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.events.RoomCatalogRevisedEvent;
+import com.reservations.hotel.events.RoomChangedEvent;
+import com.reservations.hotel.repositories.CatalogRevisionRepository;
+import com.reservations.hotel.services.CatalogVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CatalogVersionTests {
+    @Mock
+    private CatalogRevisionRepository catalogRevisionRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private CatalogVersion catalogVersion;
+
+    @BeforeEach
+    void setUp() {
+        catalogVersion = new CatalogVersion(catalogRevisionRepository, eventPublisher);
+    }
+
+    @Test
+    void sync_ShouldChangeEtag_OnlyWhenRoomsChangedElsewhere() {
+        when(catalogRevisionRepository.findRevision("rooms")).thenReturn(Optional.of(3L), Optional.of(3L), Optional.of(4L));
+        catalogVersion.sync();
+        String etag = catalogVersion.etag();
+
+        catalogVersion.sync();
+        assertEquals(etag, catalogVersion.etag());
+
+        catalogVersion.sync();
+        assertNotEquals(etag, catalogVersion.etag());
+        verify(eventPublisher).publishEvent(new RoomCatalogRevisedEvent(3L));
+        verify(eventPublisher).publishEvent(new RoomCatalogRevisedEvent(4L));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+
+    @Test
+    void recordRoomChange_ShouldBumpSharedRevision() {
+        catalogVersion.recordRoomChange(new RoomChangedEvent(1L, List.of(101)));
+
+        verify(catalogRevisionRepository).bump("rooms");
+    }
+}
@@ -0,0 +1,44 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.config.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimitFilterTests {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(1, Duration.ofMillis(10), meterRegistry);
+
+    @Test
+    void doFilter_ShouldReleasePermit_WhenRequestCompletes() throws Exception {
+        assertEquals(200, run((request, response) -> { }).getStatus());
+        assertEquals(200, run((request, response) -> { }).getStatus());
+    }
+
+    @Test
+    void doFilter_ShouldHoldPermitUntilAsyncRequestCompletes() throws Exception {
+        MockHttpServletRequest export = new MockHttpServletRequest("GET", "/api/reservations/export");
+        export.setAsyncSupported(true);
+        filter.doFilter(export, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+
+        assertEquals(503, run((request, response) -> { }).getStatus());
+        assertEquals(1.0, meterRegistry.counter("http.server.requests.shed").count());
+
+        ((MockAsyncContext) export.getAsyncContext()).complete();
+
+        assertEquals(200, run((request, response) -> { }).getStatus());
+    }
+
+    private MockHttpServletResponse run(FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/rooms"), response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,138 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.models.EmailOutbox;
+import com.reservations.hotel.models.EmailStatus;
+import com.reservations.hotel.repositories.EmailOutboxRepository;
+import com.reservations.hotel.services.EmailOutboxDispatcher;
+import com.reservations.hotel.services.EmailService;
+import com.reservations.hotel.services.JobLockService;
+import com.reservations.hotel.services.SmtpTransportPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailOutboxDispatcherTests {
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private JobLockService jobLockService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SmtpStub smtp;
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtp = new SmtpStub();
+        SmtpTransportPool pool = new SmtpTransportPool(smtp.session(), meterRegistry, "", "", 2,
+                Duration.ofMinutes(1), Duration.ofSeconds(10), Duration.ofSeconds(5));
+        EmailService emailService = new EmailService(pool, emailOutboxRepository, meterRegistry);
+        dispatcher = new EmailOutboxDispatcher(emailOutboxRepository, emailService, pool, transactionTemplate, jobLockService,
+                meterRegistry, 1000, 30000, 30000, 50, 3, Duration.ofSeconds(30), Duration.ofMinutes(1), Duration.ofMinutes(5),
+                Duration.ofDays(7), Duration.ofDays(30));
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        smtp.close();
+    }
+
+    @Test
+    void dispatch_ShouldSendClaimedEmails_AndMarkThemSent() {
+        when(emailOutboxRepository.lockDue(any(), eq(50))).thenReturn(List.of(email(1L, "a@example.com", 0), email(2L, "b@example.com", 0)));
+
+        assertEquals(2, dispatcher.dispatch());
+
+        assertEquals(List.of("a@example.com", "b@example.com"), smtp.received().stream().map(r -> r.recipients().get(0)).toList());
+        assertTrue(smtp.received().get(0).data().contains("Subject: Account Verification"));
+        verify(emailOutboxRepository).claim(eq(List.of(1L, 2L)), any());
+        verify(emailOutboxRepository).markSent(eq(List.of(1L, 2L)), any());
+        assertEquals(2, meterRegistry.get("email.outbox.outcomes").tag("outcome", "sent").counter().count());
+        assertEquals(2, meterRegistry.get("email.send.duration").tag("outcome", "sent").timer().count());
+    }
+
+    @Test
+    void dispatch_ShouldBackOffAndDeadLetter_WhenSmtpRejects() {
+        smtp.rejectNext(2);
+        when(emailOutboxRepository.lockDue(any(), eq(50))).thenReturn(List.of(email(1L, "a@example.com", 1), email(2L, "b@example.com", 2)));
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.dispatch();
+
+        ArgumentCaptor<LocalDateTime> retryAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        // Second failure of the first email waits twice the base backoff
+        verify(emailOutboxRepository).recordFailure(eq(1L), eq(EmailStatus.PENDING), eq(2), retryAt.capture(), anyString());
+        assertFalse(retryAt.getValue().isBefore(before.plusSeconds(60)));
+        verify(emailOutboxRepository).recordFailure(eq(2L), eq(EmailStatus.DEAD), eq(3), any(), anyString());
+        verify(emailOutboxRepository, never()).markSent(any(), any());
+        assertTrue(smtp.received().isEmpty());
+        assertEquals(1, meterRegistry.get("email.outbox.outcomes").tag("outcome", "dead").counter().count());
+    }
+
+    @Test
+    void purge_ShouldDeleteSentAndDeadRowsPastRetention_UnderJobLock() {
+        when(jobLockService.runExclusive(eq("email.outbox-purge"), any())).thenAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return true;
+        });
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.purge();
+
+        ArgumentCaptor<LocalDateTime> sentBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        ArgumentCaptor<LocalDateTime> deadBefore = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(emailOutboxRepository).deleteFinished(sentBefore.capture(), deadBefore.capture());
+        assertFalse(sentBefore.getValue().isBefore(before.minusDays(7)));
+        assertTrue(sentBefore.getValue().isBefore(before.minusDays(6)));
+        assertFalse(deadBefore.getValue().isBefore(before.minusDays(30)));
+        assertTrue(deadBefore.getValue().isBefore(before.minusDays(29)));
+    }
+
+    @Test
+    void purge_ShouldDoNothing_WhenRunningElsewhere() {
+        when(jobLockService.runExclusive(eq("email.outbox-purge"), any())).thenReturn(false);
+
+        dispatcher.purge();
+
+        verify(emailOutboxRepository, never()).deleteFinished(any(), any());
+    }
+
+    @Test
+    void refreshDepth_ShouldUpdateGauge_SeparatelyFromDispatch() {
+        when(emailOutboxRepository.lockDue(any(), eq(50))).thenReturn(List.of());
+        when(emailOutboxRepository.countByStatus(EmailStatus.PENDING)).thenReturn(12L);
+
+        dispatcher.dispatch();
+        verify(emailOutboxRepository, never()).countByStatus(any());
+        dispatcher.refreshDepth();
+
+        assertEquals(12, meterRegistry.get("email.outbox.depth").gauge().value());
+    }
+
+    private static EmailOutbox email(Long id, String to, int attempts) {
+        EmailOutbox email = new EmailOutbox(to, "Account Verification", "<p>123456</p>");
+        email.setId(id);
+        email.setAttempts(attempts);
+        return email;
+    }
+}
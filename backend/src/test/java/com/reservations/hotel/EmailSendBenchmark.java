@@ -0,0 +1,97 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.models.EmailOutbox;
+import com.reservations.hotel.repositories.EmailOutboxRepository;
+import com.reservations.hotel.services.EmailService;
+import com.reservations.hotel.services.SmtpTransportPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Emails per second against {@link SmtpStub}. {@code connectionPerMessage} is what sending did before the pool:
+ * one {@code JavaMailSenderImpl.send} and so one connection per message. The pooled variants reuse a connection,
+ * one email or a batch of 50 per call. {@code handshakeMillis} delays the greeting of every new connection, standing
+ * in for the STARTTLS and AUTH round trips of a remote server.
+ * <p>
+ * Run with {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test "-Dexec.args=-cp %classpath com.reservations.hotel.EmailSendBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class EmailSendBenchmark {
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"0", "20"})
+    public long handshakeMillis;
+
+    private SmtpStub smtp;
+    private JavaMailSenderImpl mailSender;
+    private SmtpTransportPool pool;
+    private EmailService emailService;
+    private List<EmailOutbox> one;
+    private List<EmailOutbox> batch;
+
+    @Setup
+    public void setUp() throws IOException {
+        smtp = new SmtpStub(handshakeMillis);
+        mailSender = new JavaMailSenderImpl();
+        mailSender.setSession(smtp.session());
+        pool = new SmtpTransportPool(smtp.session(), new SimpleMeterRegistry(), "", "", 3,
+                Duration.ofMinutes(2), Duration.ofSeconds(10), Duration.ofSeconds(30));
+        emailService = new EmailService(pool, Mockito.mock(EmailOutboxRepository.class), new SimpleMeterRegistry());
+        batch = LongStream.rangeClosed(1, BATCH_SIZE).mapToObj(id -> {
+            EmailOutbox email = new EmailOutbox("user" + id + "@example.com", "Account Verification", "<p>" + id + "</p>");
+            email.setId(id);
+            return email;
+        }).toList();
+        one = batch.subList(0, 1);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        pool.close();
+        smtp.close();
+    }
+
+    @Benchmark
+    public void connectionPerMessage() throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true);
+        helper.setTo("user1@example.com");
+        helper.setSubject("Account Verification");
+        helper.setText("<p>1</p>", true);
+        mailSender.send(message);
+    }
+
+    @Benchmark
+    public int pooledSingle() {
+        return emailService.sendBatch(one).size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int pooledBatch() {
+        return emailService.sendBatch(batch).size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EmailSendBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,103 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.models.EmailOutbox;
+import com.reservations.hotel.repositories.EmailOutboxRepository;
+import com.reservations.hotel.services.EmailService;
+import com.reservations.hotel.services.SmtpTransportPool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+public class EmailServiceTests {
+    @Mock
+    private EmailOutboxRepository emailOutboxRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private SmtpStub smtp;
+    private SmtpTransportPool pool;
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        smtp = new SmtpStub();
+        pool = new SmtpTransportPool(smtp.session(), meterRegistry, "", "", 2,
+                Duration.ofMinutes(1), Duration.ofMinutes(1), Duration.ofSeconds(5));
+        emailService = new EmailService(pool, emailOutboxRepository, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        pool.close();
+        smtp.close();
+    }
+
+    @Test
+    void sendBatch_ShouldReuseOneConnection_AcrossBatches() {
+        assertTrue(emailService.sendBatch(emails(1, 3)).isEmpty());
+        assertTrue(emailService.sendBatch(emails(4, 6)).isEmpty());
+
+        assertEquals(6, smtp.received().size());
+        assertEquals(1, smtp.connections());
+        assertEquals(1, meterRegistry.get("email.smtp.connections").tag("state", "idle").gauge().value());
+    }
+
+    @Test
+    void sendBatch_ShouldReconnectOnce_WhenServerDroppedPooledConnection() throws Exception {
+        emailService.sendBatch(emails(1, 1));
+        smtp.dropConnections();
+
+        Map<Long, MessagingException> failures = emailService.sendBatch(emails(2, 3));
+
+        assertTrue(failures.isEmpty());
+        assertEquals(3, smtp.received().size());
+        assertEquals(2, smtp.connections());
+        assertEquals(1, meterRegistry.get("email.smtp.discarded").counter().count());
+    }
+
+    @Test
+    void sendBatch_ShouldKeepConnection_WhenRecipientIsRefused() {
+        smtp.rejectNext(1);
+
+        Map<Long, MessagingException> failures = emailService.sendBatch(emails(1, 2));
+
+        assertInstanceOf(SendFailedException.class, failures.get(1L));
+        assertEquals(1, failures.size());
+        assertEquals(1, smtp.received().size());
+        assertEquals(1, smtp.connections());
+    }
+
+    @Test
+    void evictIdle_ShouldCloseConnectionsIdlePastTimeout() {
+        SmtpTransportPool shortLived = new SmtpTransportPool(smtp.session(), new SimpleMeterRegistry(), "", "", 2,
+                Duration.ZERO, Duration.ZERO, Duration.ofSeconds(5));
+        new EmailService(shortLived, emailOutboxRepository, meterRegistry).sendBatch(emails(1, 1));
+
+        shortLived.evictIdle();
+        new EmailService(shortLived, emailOutboxRepository, meterRegistry).sendBatch(emails(2, 2));
+
+        assertEquals(2, smtp.connections());
+        assertEquals(2, smtp.received().size());
+    }
+
+    private static List<EmailOutbox> emails(long fromId, long toId) {
+        return LongStream.rangeClosed(fromId, toId).mapToObj(id -> {
+            EmailOutbox email = new EmailOutbox("user" + id + "@example.com", "Account Verification", "<p>" + id + "</p>");
+            email.setId(id);
+            return email;
+        }).toList();
+    }
+}
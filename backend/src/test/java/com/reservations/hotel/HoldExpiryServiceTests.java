@@ -0,0 +1,75 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.events.ReservationChangedEvent;
+import com.reservations.hotel.events.ReservationHeldEvent;
+import com.reservations.hotel.repositories.ReservationRepository;
+import com.reservations.hotel.services.HoldExpiryService;
+import com.reservations.hotel.services.JobLockService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class HoldExpiryServiceTests {
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private JobLockService jobLockService;
+
+    private HoldExpiryService holdExpiryService;
+
+    @BeforeEach
+    void setUp() {
+        holdExpiryService = new HoldExpiryService(reservationRepository, transactionTemplate, eventPublisher, jobLockService,
+                new SimpleMeterRegistry(), Duration.ofMinutes(15), 2);
+    }
+
+    @Test
+    void releaseDueHolds_ShouldCancelOnlyExpiredHolds_InBatches() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(reservationRepository.cancelPendingHolds(any())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+        LocalDateTime now = LocalDateTime.now();
+        holdExpiryService.onReservationHeld(new ReservationHeldEvent(1L, 10L, now.minusMinutes(20)));
+        holdExpiryService.onReservationHeld(new ReservationHeldEvent(2L, 10L, now.minusMinutes(16)));
+        holdExpiryService.onReservationHeld(new ReservationHeldEvent(3L, 11L, now.minusMinutes(30)));
+        holdExpiryService.onReservationHeld(new ReservationHeldEvent(4L, 12L, now.minusMinutes(5)));
+
+        assertEquals(3, holdExpiryService.releaseDueHolds());
+
+        verify(reservationRepository).cancelPendingHolds(List.of(3L, 1L));
+        verify(reservationRepository).cancelPendingHolds(List.of(2L));
+        verify(eventPublisher, times(2)).publishEvent(new ReservationChangedEvent(10L));
+        verify(eventPublisher).publishEvent(new ReservationChangedEvent(11L));
+        verify(eventPublisher, never()).publishEvent(new ReservationChangedEvent(12L));
+    }
+
+    @Test
+    void releaseDueHolds_ShouldRetryLater_WhenUpdateFails() {
+        when(transactionTemplate.execute(any())).thenThrow(new IllegalStateException("database down"));
+        holdExpiryService.onReservationHeld(new ReservationHeldEvent(1L, 10L, LocalDateTime.now().minusHours(1)));
+
+        assertEquals(0, holdExpiryService.releaseDueHolds());
+        assertEquals(0, holdExpiryService.releaseDueHolds());
+
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+}
@@ -0,0 +1,193 @@
+package com.reservations.hotel;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reservations.hotel.exceptions.IdempotencyKeyInProgressException;
+import com.reservations.hotel.exceptions.IdempotencyKeyReusedException;
+import com.reservations.hotel.exceptions.InvalidReservationRequestException;
+import com.reservations.hotel.exceptions.ReservationError;
+import com.reservations.hotel.models.IdempotencyRecord;
+import com.reservations.hotel.repositories.IdempotencyRecordRepository;
+import com.reservations.hotel.services.IdempotencyService;
+import com.reservations.hotel.services.IdempotencyService.StoredResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class IdempotencyServiceTests {
+    @Mock
+    private IdempotencyRecordRepository repository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(repository, new ObjectMapper(), transactionTemplate, new SimpleMeterRegistry(),
+                Duration.ofHours(1), Duration.ofSeconds(5), 100);
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(repository.complete(anyString(), any(), anyInt(), anyString())).thenReturn(1);
+    }
+
+    @Test
+    void execute_ShouldRunOnceAndReplay_WhenDuplicatesArriveConcurrently() throws Exception {
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        String hash = idempotencyService.hash(Map.of("roomId", 5));
+
+        CompletableFuture<StoredResponse> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("u@e.com", "key-1", hash, () -> {
+                    executions.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return idempotencyService.json(201, Map.of("id", 10));
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<StoredResponse> duplicate = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute("u@e.com", "key-1", hash, () -> {
+                    executions.incrementAndGet();
+                    return idempotencyService.json(201, Map.of("id", 11));
+                }));
+        release.countDown();
+
+        StoredResponse original = first.get(5, TimeUnit.SECONDS);
+        StoredResponse replayed = duplicate.get(5, TimeUnit.SECONDS);
+        StoredResponse later = idempotencyService.execute("u@e.com", "key-1", hash, () -> fail("must not run again"));
+
+        assertEquals(1, executions.get());
+        assertEquals("{\"id\":10}", new String(original.body(), StandardCharsets.UTF_8));
+        assertArrayEquals(original.body(), replayed.body());
+        assertArrayEquals(original.body(), later.body());
+        verify(repository).complete(eq("u@e.com:key-1"), any(), eq(201), eq("{\"id\":10}"));
+    }
+
+    @Test
+    void execute_ShouldReject_WhenKeyIsReusedForDifferentRequest() {
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        idempotencyService.execute("u@e.com", "key-1", "hash-a", () -> idempotencyService.json(201, Map.of("id", 10)));
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotencyService.execute("u@e.com", "key-1", "hash-b", () -> idempotencyService.json(201, Map.of("id", 11))));
+    }
+
+    @Test
+    void execute_ShouldReleaseKey_WhenRequestFails() {
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThrows(InvalidReservationRequestException.class, () -> idempotencyService.execute("u@e.com", "key-1", "hash-a", () -> {
+            throw new InvalidReservationRequestException(ReservationError.ROOM_NOT_AVAILABLE);
+        }));
+
+        verify(repository).release(eq("u@e.com:key-1"), any());
+        verify(repository, never()).complete(anyString(), any(), anyInt(), anyString());
+    }
+
+    @Test
+    void execute_ShouldRunRequest_WhenItTakesOverAbandonedKey() {
+        stubAbandonedKey();
+        when(repository.takeOver(eq("u@e.com:key-1"), eq("hash-a"), any(), any(), any())).thenReturn(1);
+
+        StoredResponse response = idempotencyService.execute("u@e.com", "key-1", "hash-a", () -> idempotencyService.json(201, Map.of("id", 10)));
+
+        assertEquals(201, response.status());
+        verify(repository).complete(eq("u@e.com:key-1"), any(), eq(201), anyString());
+    }
+
+    @Test
+    void execute_ShouldStoreResponseInTransactionOfRequest() {
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        AtomicBoolean inTransaction = new AtomicBoolean();
+        AtomicInteger completedInTransaction = new AtomicInteger();
+        doAnswer(invocation -> {
+            inTransaction.set(true);
+            try {
+                return invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            } finally {
+                inTransaction.set(false);
+            }
+        }).when(transactionTemplate).execute(any());
+        doAnswer(invocation -> {
+            completedInTransaction.addAndGet(inTransaction.get() ? 1 : 0);
+            return 1;
+        }).when(repository).complete(anyString(), any(), anyInt(), anyString());
+
+        idempotencyService.execute("u@e.com", "key-1", "hash-a", () -> {
+            assertTrue(inTransaction.get());
+            return idempotencyService.json(201, Map.of("id", 10));
+        });
+
+        assertEquals(1, completedInTransaction.get());
+    }
+
+    @Test
+    void execute_ShouldRollBack_WhenClaimWasTakenOverWhileRunning() {
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        doReturn(0).when(repository).complete(anyString(), any(), anyInt(), anyString());
+
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> idempotencyService.execute("u@e.com", "key-1", "hash-a", () -> idempotencyService.json(201, Map.of("id", 10))));
+
+        // Thrown inside the transaction, so the booking made by the request is rolled back with it
+        verify(transactionTemplate).execute(any());
+        verify(repository).release(eq("u@e.com:key-1"), any());
+    }
+
+    @Test
+    void execute_ShouldReportInProgress_WhenAnotherInstanceTookOverFirst() {
+        stubAbandonedKey();
+        when(repository.takeOver(eq("u@e.com:key-1"), eq("hash-a"), any(), any(), any())).thenReturn(0);
+        AtomicInteger runs = new AtomicInteger();
+
+        assertThrows(IdempotencyKeyInProgressException.class, () -> idempotencyService.execute("u@e.com", "key-1", "hash-a", () -> {
+            runs.incrementAndGet();
+            return idempotencyService.json(201, Map.of("id", 10));
+        }));
+
+        assertEquals(0, runs.get());
+        verify(repository, never()).release(anyString(), any());
+    }
+
+    // A claim left unfinished by an instance that died
+    private void stubAbandonedKey() {
+        IdempotencyRecord abandoned = new IdempotencyRecord("u@e.com:key-1", "hash-a", LocalDateTime.now().plusHours(1));
+        abandoned.setCreatedAt(LocalDateTime.now().minusMinutes(1));
+        when(repository.saveAndFlush(any(IdempotencyRecord.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(repository.findById("u@e.com:key-1")).thenReturn(Optional.of(abandoned));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
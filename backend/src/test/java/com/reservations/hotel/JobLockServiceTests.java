@@ -0,0 +1,66 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.repositories.JobLockRepository;
+import com.reservations.hotel.services.JobLockService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JobLockServiceTests {
+    @Mock
+    private JobLockRepository jobLockRepository;
+
+    private JobLockService jobLockService;
+
+    @BeforeEach
+    void setUp() {
+        jobLockService = new JobLockService(jobLockRepository, new SimpleMeterRegistry(), Duration.ofMinutes(2), Duration.ofSeconds(30));
+    }
+
+    @Test
+    void runExclusive_ShouldSkipTask_WhenLeaseIsHeldElsewhere() {
+        when(jobLockRepository.tryAcquire(eq("job"), anyString(), anyDouble())).thenReturn(0);
+        AtomicBoolean ran = new AtomicBoolean();
+
+        assertFalse(jobLockService.runExclusive("job", () -> ran.set(true)));
+
+        assertFalse(ran.get());
+        verify(jobLockRepository, never()).release(anyString(), anyString(), anyDouble());
+    }
+
+    @Test
+    void runExclusive_ShouldReleaseLease_WhenTaskFails() {
+        when(jobLockRepository.tryAcquire("job", jobLockService.owner(), 120.0)).thenReturn(1);
+
+        assertThrows(IllegalStateException.class, () -> jobLockService.runExclusive("job", () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        verify(jobLockRepository).release("job", jobLockService.owner(), 30.0);
+        assertTrue(jobLockService.heldLocally().isEmpty());
+    }
+
+    @Test
+    void extendHeldLeases_ShouldRenewOnlyWhileTaskRuns() {
+        when(jobLockRepository.tryAcquire(eq("job"), anyString(), anyDouble())).thenReturn(1);
+        when(jobLockRepository.extend("job", jobLockService.owner(), 120.0)).thenReturn(1);
+
+        jobLockService.runExclusive("job", () -> jobLockService.extendHeldLeases());
+        jobLockService.extendHeldLeases();
+
+        verify(jobLockRepository, times(1)).extend(anyString(), anyString(), anyDouble());
+    }
+}
@@ -0,0 +1,72 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.models.User;
+import com.reservations.hotel.services.JwtService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of authenticating one request's bearer token. {@code perRequestParsing} repeats what the filter did before
+ * the key and parser were shared: decode the key and parse the token for the username, the expiry and the signature
+ * check. {@code verifyUncached} is one parse with the shared parser, {@code verifyCached} a repeat of a hot token.
+ * <p>
+ * Run with {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test "-Dexec.args=-cp %classpath com.reservations.hotel.JwtServiceBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+    private static final String SECRET = "dGVzdHRlc3R0ZXN0dGVzdHRlc3R0ZXN0dGVzdHRlc3R0ZXN0";
+
+    private JwtService cached;
+    private JwtService uncached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cached = new JwtService(SECRET, 3600000, 1209600000, 10000, new SimpleMeterRegistry());
+        uncached = new JwtService(SECRET, 3600000, 1209600000, 0, new SimpleMeterRegistry());
+        token = cached.generateToken(new User("test@example.com", "password"));
+    }
+
+    @Benchmark
+    public boolean perRequestParsing() {
+        String username = parse(token).getSubject();
+        boolean expired = parse(token).getExpiration().before(new Date());
+        parse(token); // signature
+        return username.equals("test@example.com") && !expired;
+    }
+
+    @Benchmark
+    public JwtService.TokenClaims verifyUncached() {
+        return uncached.verify(token);
+    }
+
+    @Benchmark
+    public JwtService.TokenClaims verifyCached() {
+        return cached.verify(token);
+    }
+
+    private static Claims parse(String jwt) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(jwt).getBody();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtServiceBenchmark.class.getSimpleName()).build()).run();
+    }
+}
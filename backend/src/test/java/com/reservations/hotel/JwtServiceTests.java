@@ -0,0 +1,69 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.models.Role;
+import com.reservations.hotel.models.User;
+import com.reservations.hotel.services.JwtService;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtServiceTests {
+    private static final String SECRET = "dGVzdHRlc3R0ZXN0dGVzdHRlc3R0ZXN0dGVzdHRlc3R0ZXN0";
+
+    private JwtService jwtService;
+    private final User user = new User("test@example.com", "password");
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(SECRET, 3600000, 1209600000, 100, new SimpleMeterRegistry());
+        user.setId(7L);
+        user.setRole(Role.ADMIN);
+        user.setTokenVersion(3);
+    }
+
+    @Test
+    void verify_ShouldReturnSameClaims_WhenTokenIsVerifiedAgain() {
+        String token = jwtService.generateToken(user);
+
+        JwtService.TokenClaims claims = jwtService.verify(token);
+
+        assertEquals("test@example.com", claims.subject());
+        assertEquals(7L, claims.userId());
+        assertEquals(Role.ADMIN, claims.role());
+        assertEquals(3L, claims.tokenVersion());
+        assertSame(claims, jwtService.verify(token));
+    }
+
+    @Test
+    void verify_ShouldReject_WhenTokenIsTamperedOrExpired() {
+        String token = jwtService.generateToken(user);
+        jwtService.verify(token);
+        String[] parts = token.split("\\.");
+        String forged = parts[0] + "." + parts[1] + "." + (parts[2].charAt(0) == 'A' ? 'B' : 'A') + parts[2].substring(1);
+
+        assertThrows(SignatureException.class, () -> jwtService.verify(forged));
+        assertThrows(ExpiredJwtException.class, () -> jwtService.verify(jwtService.generateToken(user, -1000)));
+    }
+
+    @Test
+    void generateRefreshToken_ShouldBeMarkedAsRefresh_WithItsOwnId() {
+        JwtService.TokenClaims access = jwtService.verify(jwtService.generateToken(user));
+        JwtService.TokenClaims refresh = jwtService.verify(jwtService.generateRefreshToken(user));
+
+        assertFalse(access.refresh());
+        assertTrue(refresh.refresh());
+        assertEquals(7L, refresh.userId());
+        assertEquals(3L, refresh.tokenVersion());
+        assertNotNull(refresh.id());
+        assertNotEquals(access.id(), refresh.id());
+    }
+
+    @Test
+    void constructor_ShouldReject_WhenSecretIsTooShort() {
+        assertThrows(IllegalArgumentException.class, () -> new JwtService("c2hvcnQ=", 3600000, 1209600000, 100, new SimpleMeterRegistry()));
+    }
+}
@@ -0,0 +1,57 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.exceptions.InvalidSearchParametersException;
+import com.reservations.hotel.services.KeysetPaging;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class KeysetPagingTests {
+    @Test
+    void reservationCursor_ShouldRoundTrip() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 3, 14, 9, 26, 53, 589_000_000);
+
+        KeysetPaging.ReservationPosition position = KeysetPaging.toReservationPosition(KeysetPaging.ofReservation(createdAt, 42L));
+
+        assertEquals(new KeysetPaging.ReservationPosition(createdAt, 42L), position);
+    }
+
+    @Test
+    void roomCursor_ShouldRoundTrip() {
+        assertEquals(305, KeysetPaging.toRoomNumber(KeysetPaging.ofRoomNumber(305)));
+    }
+
+    @Test
+    void cursors_ShouldBeRejected_WhenNotProducedByTheServer() {
+        assertThrows(InvalidSearchParametersException.class, () -> KeysetPaging.toReservationPosition("not base64!"));
+        assertThrows(InvalidSearchParametersException.class, () -> KeysetPaging.toReservationPosition(encode("null|5")));
+        assertThrows(InvalidSearchParametersException.class, () -> KeysetPaging.toReservationPosition(encode("2026-03-14T09:26")));
+        assertThrows(InvalidSearchParametersException.class, () -> KeysetPaging.toReservationPosition(encode("2026-03-14T09:26|x")));
+        assertThrows(InvalidSearchParametersException.class, () -> KeysetPaging.toRoomNumber(encode("abc")));
+    }
+
+    @Test
+    void pageSize_ShouldDefaultAndStayWithinLimits() {
+        assertEquals(KeysetPaging.DEFAULT_PAGE_SIZE, KeysetPaging.pageSize(null));
+        assertEquals(KeysetPaging.MAX_PAGE_SIZE, KeysetPaging.pageSize(10_000));
+        assertEquals(1, KeysetPaging.pageSize(0));
+        assertEquals(1, KeysetPaging.pageSize(-3));
+        assertEquals(37, KeysetPaging.pageSize(37));
+    }
+
+    @Test
+    void requireUnpaged_ShouldRejectResultsOverTheCap() {
+        assertEquals(KeysetPaging.MAX_UNPAGED, KeysetPaging.requireUnpaged(Collections.nCopies(KeysetPaging.MAX_UNPAGED, 1)).size());
+        assertThrows(InvalidSearchParametersException.class,
+                () -> KeysetPaging.requireUnpaged(Collections.nCopies(KeysetPaging.MAX_UNPAGED + 1, 1)));
+    }
+
+    private static String encode(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,121 @@
+package com.reservations.hotel;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP load against a running instance: {@code load.clients} clients, each on a virtual thread, send a
+ * request, wait for the answer and send the next, for {@code load.duration} after {@code load.warmup}. Prints
+ * throughput, errors and latency percentiles. To compare thread modes, run it against the app started with
+ * {@code spring.threads.virtual.enabled=false} and again with {@code true}.
+ * <p>
+ * It logs in as {@code load.email}/{@code load.password} once and reads {@code load.path} with that token,
+ * by default {@code /users/me/reservations}: JWT authentication without a user lookup and one query per request.
+ * Other properties and defaults: {@code load.url=http://localhost:8080}, {@code load.clients=2000},
+ * {@code load.warmup=10s}, {@code load.duration=30s}. Run the generator on another host than the app, or at least
+ * pin them to different cores, or it takes CPU from the server it measures. Not named *Test, it is a program and
+ * not part of the test run.
+ * <p>
+ * Run with {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test "-Dexec.args=-Dload.email=user@example.com -Dload.password=secret -cp %classpath com.reservations.hotel.LoadGenerator"}
+ */
+public class LoadGenerator {
+    private static final Pattern TOKEN = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"");
+
+    public record Result(int clients, long requests, long errors, double seconds, Histogram latencyMicros) {
+        public double throughput() {
+            return requests / seconds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("clients=%d requests=%d errors=%d throughput=%.0f req/s p50=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms",
+                    clients, requests, errors, throughput(), millis(50), millis(99), millis(99.9), latencyMicros.getMaxValue() / 1000.0);
+        }
+
+        private double millis(double percentile) {
+            return latencyMicros.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI base = URI.create(System.getProperty("load.url", "http://localhost:8080"));
+        String token = login(base, System.getProperty("load.email"), System.getProperty("load.password"));
+        Result result = run(base.resolve(System.getProperty("load.path", "/users/me/reservations")), token,
+                Integer.getInteger("load.clients", 2000),
+                Duration.parse("PT" + System.getProperty("load.warmup", "10s")),
+                Duration.parse("PT" + System.getProperty("load.duration", "30s")));
+        System.out.println(result);
+    }
+
+    public static String login(URI base, String email, String password) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(base.resolve("/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Login failed with " + response.statusCode() + ": " + response.body());
+        }
+        return matcher.group(1);
+    }
+
+    public static Result run(URI target, String token, int clients, Duration warmup, Duration duration) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(target)
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+        Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(2), 3);
+        AtomicLong requests = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            threads.add(Thread.ofVirtual().name("load-", i).start(() -> {
+                long now;
+                while ((now = System.nanoTime()) < measureUntil) {
+                    boolean ok;
+                    try {
+                        ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    long end = System.nanoTime();
+                    // Only requests sent and answered inside the window count
+                    if (now >= measureFrom && end <= measureUntil) {
+                        requests.incrementAndGet();
+                        if (!ok) {
+                            errors.incrementAndGet();
+                        }
+                        latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(end - now), latency.getHighestTrackableValue()));
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return new Result(clients, requests.get(), errors.get(), duration.toNanos() / 1e9, latency);
+    }
+}
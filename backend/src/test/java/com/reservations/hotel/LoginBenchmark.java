@@ -0,0 +1,99 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.dto.LoginDto;
+import com.reservations.hotel.models.User;
+import com.reservations.hotel.repositories.UserRepository;
+import com.reservations.hotel.services.AuthService;
+import com.reservations.hotel.services.CustomUserDetailsService;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency distribution of a successful login. {@code lookupThenManager} is what {@code AuthService.authenticate} did
+ * before: load the user, then let the {@code AuthenticationManager} load it again through
+ * {@link CustomUserDetailsService} and check the password. {@code singleLookup} is the current path. Each user
+ * lookup sleeps {@code queryMillis} in place of a database round trip; the {@code queries} counter is lookups per
+ * login. Both use BCrypt cost 10, which dominates the latency: the paths should differ by about one query, the
+ * measurement runs long enough (600+ samples) for p99 to be more than the slowest sample.
+ * <p>
+ * Run with {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test "-Dexec.args=-cp %classpath com.reservations.hotel.LoginBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class LoginBenchmark {
+    private static final String EMAIL = "test@example.com";
+    private static final String PASSWORD = "password123";
+
+    @Param({"2"})
+    public long queryMillis;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private UserRepository userRepository;
+    private AuthenticationManager authenticationManager;
+    private AuthService authService;
+    private LoginDto login;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Queries {
+        public long queries;
+    }
+
+    @Setup
+    public void setUp() {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(10);
+        User user = new User(EMAIL, passwordEncoder.encode(PASSWORD));
+        user.setId(1L);
+        user.setEnabled(true);
+        userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findByEmail(EMAIL)).thenAnswer(invocation -> {
+            lookups.incrementAndGet();
+            Thread.sleep(queryMillis);
+            return Optional.of(user);
+        });
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider(new CustomUserDetailsService(userRepository));
+        provider.setPasswordEncoder(passwordEncoder);
+        authenticationManager = new ProviderManager(provider);
+        authService = new AuthService(userRepository, null, passwordEncoder, null);
+        login = new LoginDto();
+        login.setEmail(EMAIL);
+        login.setPassword(PASSWORD);
+    }
+
+    @Benchmark
+    public User lookupThenManager(Queries queries) {
+        long before = lookups.get();
+        User user = userRepository.findByEmail(EMAIL).orElseThrow();
+        authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(EMAIL, PASSWORD));
+        queries.queries += lookups.get() - before;
+        return user;
+    }
+
+    @Benchmark
+    public User singleLookup(Queries queries) {
+        long before = lookups.get();
+        User user = authService.authenticate(login);
+        queries.queries += lookups.get() - before;
+        return user;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LoginBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,82 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.exceptions.InvalidRefreshTokenException;
+import com.reservations.hotel.exceptions.TokenRevokedException;
+import com.reservations.hotel.models.User;
+import com.reservations.hotel.repositories.UserRepository;
+import com.reservations.hotel.services.JwtService;
+import com.reservations.hotel.services.RefreshTokenService;
+import com.reservations.hotel.services.TokenRevocationService;
+import com.reservations.hotel.services.TokenVersionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenServiceTests {
+    private static final String SECRET = "dGVzdHRlc3R0ZXN0dGVzdHRlc3R0ZXN0dGVzdHRlc3R0ZXN0";
+
+    @Mock
+    private TokenVersionService tokenVersionService;
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+    @Mock
+    private UserRepository userRepository;
+
+    private JwtService jwtService;
+    private RefreshTokenService refreshTokenService;
+    private final User user = new User("test@example.com", "password");
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtService(SECRET, 900000, 1209600000, 100, new SimpleMeterRegistry());
+        refreshTokenService = new RefreshTokenService(jwtService, tokenVersionService, tokenRevocationService, userRepository);
+        user.setId(7L);
+        user.setEnabled(true);
+    }
+
+    @Test
+    void rotate_ShouldRevokeTokenId_AndReturnUser() {
+        String refreshToken = jwtService.generateRefreshToken(user);
+        String tokenId = jwtService.verify(refreshToken).id();
+        when(tokenVersionService.isCurrent(7L, user.getTokenVersion())).thenReturn(true);
+        when(tokenRevocationService.revoke(eq(tokenId), any())).thenReturn(true);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(user));
+
+        assertSame(user, refreshTokenService.rotate(refreshToken));
+
+        verify(tokenRevocationService).revoke(eq(tokenId), any());
+        verify(tokenVersionService, never()).revokeTokens(anyLong());
+    }
+
+    @Test
+    void rotate_ShouldRevokeAllUserTokens_WhenRefreshTokenIsReused() {
+        String refreshToken = jwtService.generateRefreshToken(user);
+        when(tokenVersionService.isCurrent(7L, user.getTokenVersion())).thenReturn(true);
+        when(tokenRevocationService.revoke(anyString(), any())).thenReturn(false);
+
+        assertThrows(TokenRevokedException.class, () -> refreshTokenService.rotate(refreshToken));
+
+        verify(tokenVersionService).revokeTokens(7L);
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void rotate_ShouldReject_WhenGivenAccessToken() {
+        String accessToken = jwtService.generateToken(user);
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(accessToken));
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("not-a-token"));
+
+        verifyNoInteractions(tokenRevocationService);
+    }
+}
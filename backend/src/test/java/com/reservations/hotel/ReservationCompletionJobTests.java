@@ -0,0 +1,81 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.events.ReservationChangedEvent;
+import com.reservations.hotel.repositories.ReservationRepository;
+import com.reservations.hotel.services.JobLockService;
+import com.reservations.hotel.services.ReservationCompletionJob;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.reservations.hotel.TestProjections.range;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationCompletionJobTests {
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private JobLockService jobLockService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ReservationCompletionJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new ReservationCompletionJob(reservationRepository, transactionTemplate, eventPublisher, jobLockService, meterRegistry, 5000);
+    }
+
+    @Test
+    void completeCheckedOutReservations_ShouldUpdateInIdRangeChunks() {
+        when(reservationRepository.findCheckedOutIdRange(any())).thenReturn(range(1L, 12000L));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(reservationRepository.findCheckedOutRoomIds(any(), any(), any())).thenReturn(List.of(7L));
+        when(reservationRepository.completeCheckedOut(any(), any(), any())).thenReturn(5000, 4000, 10);
+
+        job.completeCheckedOutReservations();
+
+        verify(reservationRepository).completeCheckedOut(eq(1L), eq(5000L), any());
+        verify(reservationRepository).completeCheckedOut(eq(5001L), eq(10000L), any());
+        verify(reservationRepository).completeCheckedOut(eq(10001L), eq(12000L), any());
+        verify(eventPublisher, times(3)).publishEvent(new ReservationChangedEvent(7L));
+        assertEquals(9010, meterRegistry.get("reservations.completion.rows").summary().totalAmount());
+        assertEquals(3, meterRegistry.get("reservations.completion.chunks").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("reservations.completion.duration").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void completeCheckedOutReservations_ShouldDoNothing_WhenNoReservationEnded() {
+        when(reservationRepository.findCheckedOutIdRange(any())).thenReturn(range(null, null));
+
+        job.completeCheckedOutReservations();
+
+        verifyNoInteractions(transactionTemplate);
+        assertEquals(0, meterRegistry.get("reservations.completion.chunks").summary().totalAmount());
+    }
+
+    @Test
+    void updateCompletedReservations_ShouldRunUnderJobLock() {
+        when(jobLockService.runExclusive(eq("reservations.completion"), any())).thenReturn(false);
+
+        job.updateCompletedReservations();
+
+        verifyNoInteractions(reservationRepository);
+    }
+}
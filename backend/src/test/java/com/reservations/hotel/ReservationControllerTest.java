@@ -3,11 +3,16 @@ package com.reservations.hotel;
 import com.reservations.hotel.config.JwtAuthFilter;
 import com.reservations.hotel.config.TestSecurityConfig;
 import com.reservations.hotel.controllers.ReservationController;
+import com.reservations.hotel.dto.PageResponseDto;
 import com.reservations.hotel.dto.ReservationResponseDto;
+import com.reservations.hotel.models.AuthenticatedUser;
 import com.reservations.hotel.models.Reservation;
+import com.reservations.hotel.models.Role;
 import com.reservations.hotel.models.Room;
 import com.reservations.hotel.models.RoomType;
 import com.reservations.hotel.models.User;
+import com.reservations.hotel.services.IdempotencyService;
+import com.reservations.hotel.services.ReservationExportService;
 import com.reservations.hotel.services.ReservationService;
 import com.reservations.hotel.services.UserService;
 import org.junit.jupiter.api.Test;
@@ -17,19 +22,28 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.authentication;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -47,6 +61,8 @@ public class ReservationControllerTest {
     @Autowired private MockMvc mockMvc;
     @MockitoBean private ReservationService reservationService;
     @MockitoBean private UserService userService;
+    @MockitoBean private ReservationExportService reservationExportService;
+    @MockitoBean private IdempotencyService idempotencyService;
 
     @Test
     @WithMockUser(roles = "ADMIN")
@@ -54,11 +70,42 @@ public class ReservationControllerTest {
         ReservationResponseDto dto = new ReservationResponseDto(mockReservation());
         when(reservationService.getAllReservations()).thenReturn(List.of(dto));
 
-        mockMvc.perform(MockMvcRequestBuilders.get("/reservations"))
+        mockMvc.perform(MockMvcRequestBuilders.get("/reservations").param("unpaged", "true"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(dto.getId()));
     }
 
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getAllReservations_ShouldReturnPageWithCursor_WhenNotUnpaged() throws Exception {
+        ReservationResponseDto dto = new ReservationResponseDto(mockReservation());
+        when(reservationService.getReservationsPage(eq("abc"), eq(1))).thenReturn(new PageResponseDto<>(List.of(dto), "def"));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/reservations").param("cursor", "abc").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(dto.getId()))
+                .andExpect(jsonPath("$.next").value("def"));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void exportReservations_ShouldStreamNdjson() throws Exception {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":10}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(reservationExportService).writeNdjson(any());
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/reservations/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(MockMvcRequestBuilders.asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":10}\n"));
+    }
+
     @Test
     @WithMockUser
     void reserveRoom_createsReservation() throws Exception{
@@ -74,6 +121,37 @@ public class ReservationControllerTest {
                 .andExpect(jsonPath("$.id").value(dto.getId()));
     }
 
+    @Test
+    void reserveRoom_ShouldTakeUserIdFromToken_WithoutLookingUpUser() throws Exception {
+        AuthenticatedUser principal = new AuthenticatedUser(1L, "u@e.com", Role.USER);
+        ReservationResponseDto dto = new ReservationResponseDto(mockReservation());
+        when(reservationService.createReservation(eq(1L), any())).thenReturn(dto);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/reservations")
+                        .with(authentication(new UsernamePasswordAuthenticationToken(principal, null, principal.authorities())))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"roomId\":5,\"checkInDate\":\"2030-01-10\",\"checkOutDate\":\"2030-01-12\"}"))
+                .andExpect(status().isCreated());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    @WithMockUser(username = "u@e.com")
+    void reserveRoom_ShouldReplayStoredResponse_WhenIdempotencyKeyIsSent() throws Exception {
+        byte[] stored = "{\"id\":10}".getBytes(StandardCharsets.UTF_8);
+        when(idempotencyService.hash(any())).thenReturn("hash");
+        when(idempotencyService.execute(eq("u@e.com"), eq("key-1"), eq("hash"), any()))
+                .thenReturn(new IdempotencyService.StoredResponse(201, stored));
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/reservations")
+                        .header("Idempotency-Key", "key-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"roomId\":5,\"checkInDate\":\"2030-01-10\",\"checkOutDate\":\"2030-01-12\"}"))
+                .andExpect(status().isCreated())
+                .andExpect(content().bytes(stored));
+    }
+
     // Helpers
     private Reservation mockReservation() {
         User user = mockUser(1L, "u@e.com");
@@ -0,0 +1,240 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.dto.PageResponseDto;
+import com.reservations.hotel.dto.ReservationCreateDto;
+import com.reservations.hotel.dto.ReservationResponseDto;
+import com.reservations.hotel.events.ReservationChangedEvent;
+import com.reservations.hotel.exceptions.InvalidReservationRequestException;
+import com.reservations.hotel.exceptions.InvalidSearchParametersException;
+import com.reservations.hotel.exceptions.ReservationNotFoundException;
+import com.reservations.hotel.exceptions.ReservationError;
+import com.reservations.hotel.models.Reservation;
+import com.reservations.hotel.models.ReservationStatus;
+import com.reservations.hotel.models.Room;
+import com.reservations.hotel.models.RoomType;
+import com.reservations.hotel.models.User;
+import com.reservations.hotel.repositories.ReservationRepository;
+import com.reservations.hotel.services.KeysetPaging;
+import com.reservations.hotel.services.ReservationService;
+import com.reservations.hotel.services.RoomLockManager;
+import com.reservations.hotel.services.RoomService;
+import com.reservations.hotel.services.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationServiceTests {
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private RoomService roomService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RoomLockManager roomLockManager;
+
+    private ReservationService reservationService;
+
+    @BeforeEach
+    void setUp() {
+        reservationService = new ReservationService(reservationRepository, roomService, userService, eventPublisher, roomLockManager, true,
+                Duration.ofMinutes(15));
+    }
+
+    @Test
+    void createReservation_ShouldThrowRoomNotAvailable_WhenExclusionConstraintIsViolated() {
+        ReservationCreateDto dto = reservationRequest();
+        when(userService.getUserById(1L)).thenReturn(new User("test@example.com", "password"));
+        when(roomService.getRoomByRoomId(2L)).thenReturn(room());
+        when(reservationRepository.existsConflictingReservation(any(), any(), any())).thenReturn(false);
+        when(reservationRepository.saveAndFlush(any(Reservation.class))).thenThrow(new DataIntegrityViolationException("insert failed",
+                new SQLException("ERROR: conflicting key value violates exclusion constraint \"reservations_no_overlap\"", "23P01")));
+
+        InvalidReservationRequestException ex = assertThrows(InvalidReservationRequestException.class,
+                () -> reservationService.createReservation(1L, dto));
+
+        assertEquals(ReservationError.ROOM_NOT_AVAILABLE, ex.getError());
+        verify(roomLockManager).lockForTransaction(2L);
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void createReservation_ShouldRethrow_WhenOtherConstraintIsViolated() {
+        ReservationCreateDto dto = reservationRequest();
+        when(userService.getUserById(1L)).thenReturn(new User("test@example.com", "password"));
+        when(roomService.getRoomByRoomId(2L)).thenReturn(room());
+        when(reservationRepository.existsConflictingReservation(any(), any(), any())).thenReturn(false);
+        when(reservationRepository.saveAndFlush(any(Reservation.class))).thenThrow(new DataIntegrityViolationException("insert failed",
+                new SQLException("ERROR: insert or update on table \"reservations\" violates foreign key constraint", "23503")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> reservationService.createReservation(1L, dto));
+    }
+
+    @Test
+    void getReservationsPage_ShouldReturnNoCursor_OnLastPage() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 10, 12, 0);
+        when(reservationRepository.findFirstPage(Limit.of(3))).thenReturn(List.of(reservation(1L, createdAt), reservation(2L, createdAt)));
+
+        PageResponseDto<ReservationResponseDto> page = reservationService.getReservationsPage(null, 2);
+
+        assertEquals(2, page.getItems().size());
+        assertNull(page.getNext());
+    }
+
+    @Test
+    void getReservationsPage_ShouldContinueAfterLastId_WhenCreatedAtTies() {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 10, 12, 0);
+        when(reservationRepository.findFirstPage(Limit.of(3)))
+                .thenReturn(List.of(reservation(1L, createdAt), reservation(2L, createdAt), reservation(3L, createdAt)));
+        when(reservationRepository.findPageAfter(createdAt, 2L, Limit.of(3))).thenReturn(List.of(reservation(3L, createdAt)));
+
+        PageResponseDto<ReservationResponseDto> first = reservationService.getReservationsPage(null, 2);
+        PageResponseDto<ReservationResponseDto> second = reservationService.getReservationsPage(first.getNext(), 2);
+
+        assertEquals(List.of(1L, 2L), first.getItems().stream().map(ReservationResponseDto::getId).toList());
+        assertEquals(List.of(3L), second.getItems().stream().map(ReservationResponseDto::getId).toList());
+        assertNull(second.getNext());
+    }
+
+    @Test
+    void getReservationsPage_ShouldCapPageSize() {
+        when(reservationRepository.findFirstPage(any())).thenReturn(List.of());
+
+        reservationService.getReservationsPage(null, 1000);
+
+        verify(reservationRepository).findFirstPage(Limit.of(KeysetPaging.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void getAllReservations_ShouldReject_WhenMoreThanUnpagedCap() {
+        Reservation reservation = reservation(1L, LocalDateTime.now());
+        when(reservationRepository.findFirstPage(Limit.of(KeysetPaging.MAX_UNPAGED + 1)))
+                .thenReturn(Collections.nCopies(KeysetPaging.MAX_UNPAGED + 1, reservation));
+
+        assertThrows(InvalidSearchParametersException.class, () -> reservationService.getAllReservations());
+    }
+
+    @Test
+    void getReservationsPage_ShouldThrow_WhenCursorInvalid() {
+        assertThrows(InvalidSearchParametersException.class, () -> reservationService.getReservationsPage("garbage", 10));
+        verifyNoInteractions(reservationRepository);
+    }
+
+    @Test
+    void confirmReservation_ShouldConfirm_WhenHoldIsStillPending() {
+        Reservation reservation = reservation(7L, LocalDateTime.now());
+        reservation.setStatus(ReservationStatus.CONFIRMED);
+        when(reservationRepository.confirmPending(eq(7L), any())).thenReturn(1);
+        when(reservationRepository.findById(7L)).thenReturn(Optional.of(reservation));
+
+        assertEquals("CONFIRMED", reservationService.confirmReservation(7L).getStatus());
+        verify(eventPublisher).publishEvent(new ReservationChangedEvent(2L));
+    }
+
+    @Test
+    void confirmReservation_ShouldReject_WhenExpiryCancelledTheHoldFirst() {
+        // Expiry committed between the client's request and the conditional update, which then matches no row
+        Reservation expired = reservation(7L, LocalDateTime.now().minusMinutes(16));
+        expired.setStatus(ReservationStatus.CANCELLED);
+        when(reservationRepository.confirmPending(eq(7L), any())).thenReturn(0);
+        when(reservationRepository.findById(7L)).thenReturn(Optional.of(expired));
+
+        InvalidReservationRequestException ex = assertThrows(InvalidReservationRequestException.class,
+                () -> reservationService.confirmReservation(7L));
+
+        assertEquals(ReservationError.INVALID_RESERVATION_STATUS, ex.getError());
+        assertEquals(ReservationStatus.CANCELLED, expired.getStatus());
+        verify(reservationRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void confirmReservation_ShouldReject_WhenHoldExpiredBeforeTheSweep() {
+        when(reservationRepository.confirmPending(eq(7L), any())).thenReturn(0);
+        when(reservationRepository.findById(7L)).thenReturn(Optional.of(reservation(7L, LocalDateTime.now().minusMinutes(16))));
+        LocalDateTime before = LocalDateTime.now();
+
+        InvalidReservationRequestException ex = assertThrows(InvalidReservationRequestException.class,
+                () -> reservationService.confirmReservation(7L));
+
+        assertEquals(ReservationError.HOLD_EXPIRED, ex.getError());
+        ArgumentCaptor<LocalDateTime> heldSince = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(reservationRepository).confirmPending(eq(7L), heldSince.capture());
+        assertFalse(heldSince.getValue().isBefore(before.minusMinutes(15)));
+    }
+
+    @Test
+    void confirmReservation_ShouldThrowNotFound_WhenReservationIsMissing() {
+        when(reservationRepository.confirmPending(eq(7L), any())).thenReturn(0);
+        when(reservationRepository.findById(7L)).thenReturn(Optional.empty());
+
+        assertThrows(ReservationNotFoundException.class, () -> reservationService.confirmReservation(7L));
+    }
+
+    @Test
+    void cancelReservation_ShouldReject_WhenAlreadyCancelled() {
+        Reservation cancelled = reservation(7L, LocalDateTime.now());
+        cancelled.setStatus(ReservationStatus.CANCELLED);
+        when(reservationRepository.cancelActive(eq(7L), any())).thenReturn(0);
+        when(reservationRepository.findById(7L)).thenReturn(Optional.of(cancelled));
+
+        InvalidReservationRequestException ex = assertThrows(InvalidReservationRequestException.class,
+                () -> reservationService.cancelReservation(7L));
+
+        assertEquals(ReservationError.INVALID_RESERVATION_STATUS, ex.getError());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private ReservationCreateDto reservationRequest() {
+        ReservationCreateDto dto = new ReservationCreateDto();
+        dto.setRoomId(2L);
+        dto.setCheckInDate(LocalDate.now().plusDays(1));
+        dto.setCheckOutDate(LocalDate.now().plusDays(3));
+        return dto;
+    }
+
+    private Reservation reservation(Long id, LocalDateTime createdAt) {
+        Room room = room();
+        room.setType(RoomType.DOUBLE);
+        room.setCapacity(2);
+        room.setPricePerNight(100.0);
+        Reservation reservation = new Reservation(new User("test@example.com", "password"), room,
+                LocalDate.now().plusDays(1), LocalDate.now().plusDays(3));
+        reservation.setId(id);
+        reservation.setCreatedAt(createdAt);
+        return reservation;
+    }
+
+    private Room room() {
+        Room room = new Room();
+        room.setId(2L);
+        room.setRoomNumber(101);
+        return room;
+    }
+}
@@ -0,0 +1,108 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.repositories.CatalogRevisionRepository;
+import com.reservations.hotel.repositories.ReservationRepository;
+import com.reservations.hotel.services.CatalogVersion;
+import com.reservations.hotel.services.RoomAvailabilityIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.reservations.hotel.TestProjections.interval;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class RoomAvailabilityIndexTests {
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private CatalogRevisionRepository catalogRevisionRepository;
+
+    private CatalogVersion catalogVersion;
+    private RoomAvailabilityIndex index;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        catalogVersion = new CatalogVersion(catalogRevisionRepository, event -> { });
+        index = new RoomAvailabilityIndex(reservationRepository, 30, catalogVersion);
+    }
+
+    @Test
+    void isAvailable_ShouldDetectOverlap_WhenStayIntersectsBooking() {
+        when(reservationRepository.findActiveIntervalsEndingAfter(any()))
+                .thenReturn(List.of(interval(1L, today.plusDays(5), today.plusDays(8))));
+        index.rebuild();
+
+        assertFalse(index.isAvailable(1L, today.plusDays(4), today.plusDays(6)));
+        assertFalse(index.isAvailable(1L, today.plusDays(7), today.plusDays(9)));
+        assertTrue(index.isAvailable(1L, today.plusDays(2), today.plusDays(5)));
+        assertTrue(index.isAvailable(1L, today.plusDays(8), today.plusDays(10)));
+        assertTrue(index.isAvailable(2L, today.plusDays(5), today.plusDays(8)));
+    }
+
+    @Test
+    void covers_ShouldBeFalse_WhenNotBuiltOrOutsideHorizon() {
+        assertFalse(index.covers(today.plusDays(1), today.plusDays(2)));
+
+        when(reservationRepository.findActiveIntervalsEndingAfter(any())).thenReturn(List.of());
+        index.rebuild();
+
+        assertTrue(index.covers(today, today.plusDays(30)));
+        assertFalse(index.covers(today.plusDays(29), today.plusDays(31)));
+        assertFalse(index.covers(today.minusDays(1), today.plusDays(1)));
+    }
+
+    @Test
+    void refreshRoom_ShouldReleaseNights_WhenReservationIsCancelled() {
+        when(reservationRepository.findActiveIntervalsEndingAfter(any()))
+                .thenReturn(List.of(interval(1L, today.plusDays(5), today.plusDays(8))));
+        index.rebuild();
+        when(reservationRepository.findActiveIntervalsByRoomIdEndingAfter(eq(1L), any())).thenReturn(List.of());
+
+        index.refreshRoom(1L);
+
+        assertTrue(index.isAvailable(1L, today.plusDays(5), today.plusDays(8)));
+    }
+
+    @Test
+    void rebuild_ShouldKeepCatalogVersion_WhenRefreshReleasedARoom() {
+        when(reservationRepository.findActiveIntervalsEndingAfter(any()))
+                .thenReturn(List.of(interval(1L, today.plusDays(5), today.plusDays(8)), interval(2L, today.plusDays(1), today.plusDays(2))));
+        index.rebuild();
+        when(reservationRepository.findActiveIntervalsByRoomIdEndingAfter(eq(1L), any())).thenReturn(List.of());
+        index.refreshRoom(1L);
+        when(reservationRepository.findActiveIntervalsEndingAfter(any()))
+                .thenReturn(List.of(interval(2L, today.plusDays(1), today.plusDays(2))));
+        String etag = catalogVersion.etag();
+
+        index.rebuild();
+
+        assertEquals(etag, catalogVersion.etag());
+    }
+
+    @Test
+    void rebuild_ShouldReapplyRefresh_WhenItLandsDuringTheSnapshotRead() {
+        when(reservationRepository.findActiveIntervalsEndingAfter(any()))
+                .thenReturn(List.of(interval(1L, today.plusDays(5), today.plusDays(8))));
+        index.rebuild();
+        when(reservationRepository.findActiveIntervalsByRoomIdEndingAfter(eq(1L), any())).thenReturn(List.of());
+        // The snapshot was read before the cancellation committed, the refresh for it runs before the snapshot is published
+        when(reservationRepository.findActiveIntervalsEndingAfter(any())).thenAnswer(invocation -> {
+            index.refreshRoom(1L);
+            return List.of(interval(1L, today.plusDays(5), today.plusDays(8)));
+        });
+
+        index.rebuild();
+
+        assertTrue(index.isAvailable(1L, today.plusDays(5), today.plusDays(8)));
+    }
+}
@@ -0,0 +1,111 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.events.RoomCatalogRevisedEvent;
+import com.reservations.hotel.events.RoomChangedEvent;
+import com.reservations.hotel.models.Room;
+import com.reservations.hotel.repositories.RoomRepository;
+import com.reservations.hotel.services.RoomCatalogCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Sort;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RoomCatalogCacheTests {
+    @Mock
+    private RoomRepository roomRepository;
+
+    private RoomCatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RoomCatalogCache(roomRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void getByRoomNumber_ShouldHitDatabaseOnce_WhenCalledRepeatedly() {
+        Room room = new Room();
+        room.setId(1L);
+        room.setRoomNumber(101);
+        when(roomRepository.findByRoomNumber(101)).thenReturn(Optional.of(room));
+
+        assertSame(room, cache.getByRoomNumber(101).orElseThrow());
+        assertSame(room, cache.getByRoomNumber(101).orElseThrow());
+
+        verify(roomRepository, times(1)).findByRoomNumber(101);
+    }
+
+    @Test
+    void getById_ShouldShareOneLoad_WhenThreadsMissTogether() throws Exception {
+        Room room = new Room();
+        room.setId(1L);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(roomRepository.findById(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return Optional.of(room);
+        });
+
+        CompletableFuture<Optional<Room>> first = CompletableFuture.supplyAsync(() -> cache.getById(1L));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Optional<Room>> second = CompletableFuture.supplyAsync(() -> cache.getById(1L));
+        // The map is not locked while the first thread loads
+        assertTrue(cache.getByRoomNumber(202).isEmpty());
+        release.countDown();
+
+        assertSame(room, first.get(5, TimeUnit.SECONDS).orElseThrow());
+        assertSame(room, second.get(5, TimeUnit.SECONDS).orElseThrow());
+        verify(roomRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void onRoomChanged_ShouldEvictEntries_WhenRoomIsModified() {
+        Room room = new Room();
+        room.setId(1L);
+        room.setRoomNumber(101);
+        when(roomRepository.findById(1L)).thenReturn(Optional.of(room));
+        when(roomRepository.findAll(any(Sort.class))).thenReturn(List.of(room));
+        cache.getById(1L);
+        cache.getAll();
+
+        cache.onRoomChanged(new RoomChangedEvent(1L, List.of(101)));
+        cache.getById(1L);
+        cache.getAll();
+
+        verify(roomRepository, times(2)).findById(1L);
+        verify(roomRepository, times(2)).findAll(any(Sort.class));
+    }
+
+    @Test
+    void onRoomCatalogRevised_ShouldReloadEverything_WhenChangedElsewhere() {
+        Room room = new Room();
+        room.setId(1L);
+        room.setRoomNumber(101);
+        when(roomRepository.findById(1L)).thenReturn(Optional.of(room));
+        when(roomRepository.findByRoomNumber(101)).thenReturn(Optional.of(room));
+        cache.getById(1L);
+        cache.getByRoomNumber(101);
+
+        cache.onRoomCatalogRevised(new RoomCatalogRevisedEvent(7L));
+        cache.getById(1L);
+        cache.getByRoomNumber(101);
+
+        verify(roomRepository, times(2)).findById(1L);
+        verify(roomRepository, times(2)).findByRoomNumber(101);
+    }
+}
@@ -0,0 +1,72 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.config.JwtAuthFilter;
+import com.reservations.hotel.config.TestSecurityConfig;
+import com.reservations.hotel.controllers.RoomController;
+import com.reservations.hotel.services.AvailabilityCalendarService;
+import com.reservations.hotel.services.CatalogVersion;
+import com.reservations.hotel.services.RoomImportService;
+import com.reservations.hotel.services.RoomService;
+import com.reservations.hotel.services.RoomSuggestionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(
+        controllers = RoomController.class,
+        excludeFilters = @ComponentScan.Filter(
+                type = FilterType.ASSIGNABLE_TYPE,
+                classes = JwtAuthFilter.class
+        )
+)
+@Import(TestSecurityConfig.class)
+@ActiveProfiles("test")
+public class RoomControllerTest {
+
+    @Autowired private MockMvc mockMvc;
+    @MockitoBean private RoomService roomService;
+    @MockitoBean private CatalogVersion catalogVersion;
+    @MockitoBean private AvailabilityCalendarService availabilityCalendarService;
+    @MockitoBean private RoomSuggestionService roomSuggestionService;
+    @MockitoBean private RoomImportService roomImportService;
+
+    @Test
+    @WithMockUser
+    void getSpecific_ShouldReturnNotModified_WhenEtagMatches() throws Exception {
+        when(catalogVersion.etag()).thenReturn("\"v-1\"");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/rooms").param("unpaged", "true").header("If-None-Match", "\"v-1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"v-1\""));
+
+        verify(roomService, never()).getSpecificRoomsDto(any(), any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @WithMockUser
+    void getSpecific_ShouldReturnBodyWithEtag_WhenVersionChanged() throws Exception {
+        when(catalogVersion.etag()).thenReturn("\"v-2\"");
+        when(roomService.getSpecificRoomsDto(any(), any(), any(), any(), any(), any())).thenReturn(List.of());
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/rooms").param("unpaged", "true").header("If-None-Match", "\"v-1\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"v-2\""));
+    }
+}
@@ -0,0 +1,127 @@
+package com.reservations.hotel;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.reservations.hotel.dto.RoomImportResultDto;
+import com.reservations.hotel.events.RoomChangedEvent;
+import com.reservations.hotel.exceptions.RoomImportAbortedException;
+import com.reservations.hotel.repositories.RoomRepository;
+import com.reservations.hotel.services.RoomImportService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RoomImportServiceTests {
+    @Mock
+    private RoomRepository roomRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private RoomImportService roomImportService;
+
+    @BeforeEach
+    void setUp() {
+        roomImportService = new RoomImportService(roomRepository, new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(), transactionTemplate, eventPublisher, 2);
+    }
+
+    @Test
+    void importCsv_ShouldReportRowErrors_WhenRowsAreInvalidOrDuplicated() throws Exception {
+        when(roomRepository.findExistingRoomNumbers(any())).thenReturn(Set.of(), Set.of(103));
+        String csv = """
+                roomNumber,roomType,capacity,pricePerNight,description
+                101,single,1,80,"Quiet, courtyard side"
+                102,DOUBLE,2,120,Sea view
+                101,SINGLE,1,80,Same number again
+                abc,SINGLE,1,80,Not a number
+                103,SUITE,4,300,Already in the hotel
+                104,SUITE,0,300,No capacity
+                """;
+
+        RoomImportResultDto result = roomImportService.importCsv(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(6, result.getReceived());
+        assertEquals(2, result.getCreated());
+        assertEquals(List.of(3, 4, 5, 6), result.getErrors().stream().map(RoomImportResultDto.RowError::row).toList());
+        assertEquals("Room with this number already exists", result.getErrors().get(2).message());
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+        verify(eventPublisher).publishEvent(new RoomChangedEvent(null, List.of(101, 102)));
+    }
+
+    @Test
+    void importJson_ShouldContinueAfterMalformedRow() throws Exception {
+        when(roomRepository.findExistingRoomNumbers(any())).thenReturn(Set.of());
+        String json = """
+                [{"roomNumber":201,"roomType":"NOPE","capacity":1,"pricePerNight":50,"description":"x"},
+                 {"roomNumber":202,"roomType":"DELUXE","capacity":2,"pricePerNight":250,"description":"y"}]
+                """;
+
+        RoomImportResultDto result = roomImportService.importJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, result.getReceived());
+        assertEquals(1, result.getCreated());
+        assertEquals(201, result.getErrors().get(0).roomNumber());
+    }
+
+    @Test
+    void importJson_ShouldReportCommittedRows_WhenBodyIsTruncated() {
+        when(roomRepository.findExistingRoomNumbers(any())).thenReturn(Set.of());
+        String json = """
+                [{"roomNumber":301,"roomType":"SINGLE","capacity":1,"pricePerNight":50,"description":"a"},
+                 {"roomNumber":302,"roomType":"SINGLE","capacity":1,"pricePerNight":50,"description":"b"},
+                 {"roomNumber":303,"roomType":"SINGLE","capacity":1,"pricePerNight":50,"description":"c"},
+                 {"roomNumber":304,"roomType":"SIN""";
+
+        RoomImportAbortedException ex = assertThrows(RoomImportAbortedException.class,
+                () -> roomImportService.importJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+
+        assertEquals(3, ex.getResult().getReceived());
+        assertEquals(3, ex.getResult().getCreated());
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(eventPublisher).publishEvent(new RoomChangedEvent(null, List.of(301, 302, 303)));
+    }
+
+    @Test
+    void importJson_ShouldReportCommittedRows_WhenArrayIsNotClosed() {
+        when(roomRepository.findExistingRoomNumbers(any())).thenReturn(Set.of());
+        String json = """
+                [{"roomNumber":311,"roomType":"SINGLE","capacity":1,"pricePerNight":50,"description":"a"},""";
+
+        RoomImportAbortedException ex = assertThrows(RoomImportAbortedException.class,
+                () -> roomImportService.importJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+
+        assertEquals(1, ex.getResult().getCreated());
+    }
+
+    @Test
+    void importJson_ShouldStop_WhenSyntaxErrorBetweenRows() {
+        when(roomRepository.findExistingRoomNumbers(any())).thenReturn(Set.of());
+        String json = """
+                [{"roomNumber":321,"roomType":"SINGLE","capacity":1,"pricePerNight":50,"description":"a"};
+                 {"roomNumber":322,"roomType":"SINGLE","capacity":1,"pricePerNight":50,"description":"b"}]
+                """;
+
+        RoomImportAbortedException ex = assertThrows(RoomImportAbortedException.class,
+                () -> roomImportService.importJson(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))));
+
+        assertTrue(ex.getMessage().startsWith("Malformed JSON"));
+        assertEquals(1, ex.getResult().getReceived());
+        assertEquals(1, ex.getResult().getCreated());
+    }
+}
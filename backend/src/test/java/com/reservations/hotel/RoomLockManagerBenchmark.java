@@ -0,0 +1,73 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.services.RoomLockManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Booking throughput under the striped room locks. With bookings spread over many rooms throughput should grow
+ * with the thread count, with every booking on one room it stays flat.
+ * <p>
+ * Run with {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test "-Dexec.args=-cp %classpath com.reservations.hotel.RoomLockManagerBenchmark"}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoomLockManagerBenchmark {
+    @Param({"1", "1000"})
+    private int rooms;
+
+    @Param({"256"})
+    private int stripes;
+
+    private RoomLockManager roomLockManager;
+
+    @Setup
+    public void setUp() {
+        roomLockManager = new RoomLockManager(new SimpleMeterRegistry(), stripes, Duration.ofSeconds(30));
+    }
+
+    // Critical section stands in for the availability check and insert
+    private void book() {
+        Lock lock = roomLockManager.acquire(ThreadLocalRandom.current().nextLong(rooms));
+        try {
+            Blackhole.consumeCPU(500);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void oneThread() {
+        book();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void fourThreads() {
+        book();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void allCores() {
+        book();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RoomLockManagerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,66 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.exceptions.RoomLockTimeoutException;
+import com.reservations.hotel.services.RoomLockManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.Lock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RoomLockManagerTests {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RoomLockManager roomLockManager;
+
+    @BeforeEach
+    void setUp() {
+        roomLockManager = new RoomLockManager(meterRegistry, 64, Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void acquire_ShouldTimeOut_WhenSameRoomIsHeldByAnotherThread() {
+        Lock held = roomLockManager.acquire(1L);
+        try {
+            CompletableFuture<Void> sameRoom = CompletableFuture.runAsync(() -> roomLockManager.acquire(1L));
+            CompletableFuture<Lock> otherRoom = CompletableFuture.supplyAsync(() -> roomLockManager.acquire(2L));
+
+            Exception ex = assertThrows(Exception.class, sameRoom::join);
+            assertInstanceOf(RoomLockTimeoutException.class, ex.getCause());
+            assertNotNull(otherRoom.join());
+            assertEquals(1, meterRegistry.get("reservations.room.lock.wait").tag("outcome", "timeout").timer().count());
+        } finally {
+            held.unlock();
+        }
+    }
+
+    @Test
+    void lockForTransaction_ShouldReleaseLock_WhenTransactionCompletes() {
+        TransactionSynchronizationManager.initSynchronization();
+        roomLockManager.lockForTransaction(1L);
+
+        assertThrows(Exception.class, () -> CompletableFuture.runAsync(() -> roomLockManager.acquire(1L)).join());
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertDoesNotThrow(() -> CompletableFuture.runAsync(() -> roomLockManager.acquire(1L).unlock()).join());
+    }
+
+    @Test
+    void lockForTransaction_ShouldThrow_WhenNoTransactionIsActive() {
+        assertThrows(IllegalStateException.class, () -> roomLockManager.lockForTransaction(1L));
+    }
+}
@@ -0,0 +1,138 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.dto.RoomResponseDto;
+import com.reservations.hotel.models.Reservation;
+import com.reservations.hotel.models.ReservationStatus;
+import com.reservations.hotel.models.Room;
+import com.reservations.hotel.models.RoomType;
+import com.reservations.hotel.models.User;
+import com.reservations.hotel.repositories.ReservationRepository;
+import com.reservations.hotel.repositories.RoomRepository;
+import com.reservations.hotel.repositories.RoomSpecifications;
+import com.reservations.hotel.repositories.UserRepository;
+import com.reservations.hotel.services.RoomAvailabilityIndex;
+import com.reservations.hotel.services.RoomCatalogCache;
+import com.reservations.hotel.services.RoomService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Runs the generated SQL against an in-memory H2; the PostgreSQL-only init scripts are skipped
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.show_sql=false"
+})
+public class RoomSpecificationsTests {
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private final LocalDate checkIn = LocalDate.now().plusDays(10);
+    private final LocalDate checkOut = LocalDate.now().plusDays(13);
+    private User user;
+    private Room room;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("guest@example.com", "password"));
+        room = roomRepository.save(new Room(101, RoomType.SINGLE, 100.0, 1, "Single"));
+    }
+
+    @Test
+    void availableBetween_ShouldKeepRoom_WhenBookingChecksOutOnCheckInDay() {
+        book(checkIn.minusDays(2), checkIn, ReservationStatus.CONFIRMED);
+
+        assertEquals(List.of(101), availableRoomNumbers(checkIn, checkOut));
+    }
+
+    @Test
+    void availableBetween_ShouldKeepRoom_WhenBookingChecksInOnCheckOutDay() {
+        book(checkOut, checkOut.plusDays(2), ReservationStatus.CONFIRMED);
+
+        assertEquals(List.of(101), availableRoomNumbers(checkIn, checkOut));
+    }
+
+    @Test
+    void availableBetween_ShouldExcludeRoom_WhenBookingOverlapsFirstNight() {
+        book(checkIn.minusDays(2), checkIn.plusDays(1), ReservationStatus.CONFIRMED);
+
+        assertEquals(List.of(), availableRoomNumbers(checkIn, checkOut));
+    }
+
+    @Test
+    void availableBetween_ShouldExcludeRoom_WhenBookingOverlapsLastNight() {
+        book(checkOut.minusDays(1), checkOut.plusDays(2), ReservationStatus.PENDING);
+
+        assertEquals(List.of(), availableRoomNumbers(checkIn, checkOut));
+    }
+
+    @Test
+    void availableBetween_ShouldIgnoreCancelledAndCompletedBookings() {
+        book(checkIn, checkOut, ReservationStatus.CANCELLED);
+        book(checkIn, checkOut, ReservationStatus.COMPLETED);
+
+        assertEquals(List.of(101), availableRoomNumbers(checkIn, checkOut));
+    }
+
+    @Test
+    void matching_ShouldApplyOnlyGivenFilters() {
+        roomRepository.save(new Room(102, RoomType.DOUBLE, 180.0, 2, "Double"));
+        roomRepository.save(new Room(103, RoomType.DOUBLE, 250.0, 3, "Large double"));
+
+        assertEquals(List.of(101, 102, 103), roomNumbers(RoomSpecifications.matching(null, null, null)));
+        assertEquals(List.of(102, 103), roomNumbers(RoomSpecifications.matching(RoomType.DOUBLE, null, null)));
+        assertEquals(List.of(102, 103), roomNumbers(RoomSpecifications.matching(null, 2, null)));
+        assertEquals(List.of(101, 102), roomNumbers(RoomSpecifications.matching(null, null, 180.0)));
+        assertEquals(List.of(102), roomNumbers(RoomSpecifications.matching(RoomType.DOUBLE, 2, 200.0)));
+    }
+
+    @Test
+    void getSpecificRoomsDto_ShouldQueryDatabase_WhenDatesAreOutsideIndexHorizon() {
+        roomRepository.save(new Room(102, RoomType.SINGLE, 120.0, 1, "Single"));
+        roomRepository.save(new Room(103, RoomType.DOUBLE, 180.0, 2, "Double"));
+        book(checkIn.plusDays(1), checkOut.plusDays(1), ReservationStatus.CONFIRMED);
+        RoomAvailabilityIndex availabilityIndex = mock(RoomAvailabilityIndex.class);
+        RoomCatalogCache roomCatalogCache = mock(RoomCatalogCache.class);
+        when(availabilityIndex.covers(checkIn, checkOut)).thenReturn(false);
+        RoomService roomService = new RoomService(roomRepository, reservationRepository, availabilityIndex, roomCatalogCache, event -> { });
+
+        List<RoomResponseDto> rooms = roomService.getSpecificRoomsDto(null, RoomType.SINGLE, null, null, checkIn, checkOut);
+
+        assertEquals(List.of(102), rooms.stream().map(RoomResponseDto::getRoomNumber).toList());
+        verify(availabilityIndex, never()).isAvailable(anyLong(), any(), any());
+        verify(roomCatalogCache, never()).getAll();
+    }
+
+    private void book(LocalDate from, LocalDate to, ReservationStatus status) {
+        Reservation reservation = new Reservation(user, room, from, to);
+        reservation.setStatus(status);
+        reservationRepository.save(reservation);
+    }
+
+    private List<Integer> availableRoomNumbers(LocalDate from, LocalDate to) {
+        return roomNumbers(RoomSpecifications.matching(null, null, null).and(RoomSpecifications.availableBetween(from, to)));
+    }
+
+    private List<Integer> roomNumbers(Specification<Room> spec) {
+        return roomRepository.findAll(spec, Sort.by("roomNumber")).stream().map(Room::getRoomNumber).toList();
+    }
+}
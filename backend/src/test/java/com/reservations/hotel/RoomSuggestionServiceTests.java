@@ -0,0 +1,149 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.dto.DateSuggestionDto;
+import com.reservations.hotel.models.Room;
+import com.reservations.hotel.models.RoomType;
+import com.reservations.hotel.repositories.ReservationRepository;
+import com.reservations.hotel.services.RoomCatalogCache;
+import com.reservations.hotel.services.RoomSuggestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static com.reservations.hotel.TestProjections.interval;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class RoomSuggestionServiceTests {
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private RoomCatalogCache roomCatalogCache;
+
+    private RoomSuggestionService service;
+    private final LocalDate checkIn = LocalDate.now().plusDays(60);
+
+    @BeforeEach
+    void setUp() {
+        service = new RoomSuggestionService(reservationRepository, roomCatalogCache, 30);
+    }
+
+    @Test
+    void suggest_ShouldReturnClosestFreeWindows_WhenRoomIsBooked() {
+        Room requested = room(1L, 101, RoomType.DOUBLE);
+        Room sameType = room(2L, 102, RoomType.DOUBLE);
+        Room otherType = room(3L, 103, RoomType.SUITE);
+        when(roomCatalogCache.getById(1L)).thenReturn(Optional.of(requested));
+        when(roomCatalogCache.getAll()).thenReturn(List.of(requested, sameType, otherType));
+        when(reservationRepository.findActiveIntervalsByRoomIdsOverlapping(any(), any(), any())).thenReturn(List.of(
+                interval(1L, checkIn.minusDays(1), checkIn.plusDays(2)),
+                interval(1L, checkIn.plusDays(2), checkIn.plusDays(5)),
+                interval(2L, checkIn.minusDays(10), checkIn.plusDays(1))));
+
+        List<DateSuggestionDto> suggestions = service.suggest(1L, checkIn, checkIn.plusDays(3), 3);
+
+        assertEquals(3, suggestions.size());
+        assertEquals(102, suggestions.get(0).getRoomNumber());
+        assertEquals(1, suggestions.get(0).getDaysShifted());
+        assertEquals(101, suggestions.get(1).getRoomNumber());
+        assertEquals(-4, suggestions.get(1).getDaysShifted());
+        assertEquals(checkIn.minusDays(4), suggestions.get(1).getCheckInDate());
+        assertEquals(checkIn.minusDays(1), suggestions.get(1).getCheckOutDate());
+        assertEquals(101, suggestions.get(2).getRoomNumber());
+        assertEquals(5, suggestions.get(2).getDaysShifted());
+        assertTrue(suggestions.stream().noneMatch(s -> s.getRoomId().equals(3L)));
+    }
+
+    @Test
+    void suggest_ShouldOfferRequestedDatesFirst_WhenRoomHasNoBookings() {
+        Room requested = room(1L, 101, RoomType.DOUBLE);
+        Room sameType = room(2L, 102, RoomType.DOUBLE);
+        when(roomCatalogCache.getById(1L)).thenReturn(Optional.of(requested));
+        when(roomCatalogCache.getAll()).thenReturn(List.of(sameType, requested));
+        when(reservationRepository.findActiveIntervalsByRoomIdsOverlapping(any(), any(), any())).thenReturn(List.of());
+
+        List<DateSuggestionDto> suggestions = service.suggest(1L, checkIn, checkIn.plusDays(3), null);
+
+        assertEquals(2, suggestions.size());
+        assertEquals(101, suggestions.get(0).getRoomNumber());
+        assertEquals(checkIn, suggestions.get(0).getCheckInDate());
+        assertEquals(checkIn.plusDays(3), suggestions.get(0).getCheckOutDate());
+        assertEquals(0, suggestions.get(0).getDaysShifted());
+        assertEquals(102, suggestions.get(1).getRoomNumber());
+        assertEquals(0, suggestions.get(1).getDaysShifted());
+    }
+
+    @Test
+    void suggest_ShouldSkipGap_WhenShorterThanStay() {
+        Room requested = room(1L, 101, RoomType.DOUBLE);
+        when(roomCatalogCache.getById(1L)).thenReturn(Optional.of(requested));
+        when(roomCatalogCache.getAll()).thenReturn(List.of(requested));
+        // Two free nights at the requested check-in, the stay needs three
+        when(reservationRepository.findActiveIntervalsByRoomIdsOverlapping(any(), any(), any())).thenReturn(List.of(
+                interval(1L, checkIn.minusDays(5), checkIn),
+                interval(1L, checkIn.plusDays(2), checkIn.plusDays(10))));
+
+        List<DateSuggestionDto> suggestions = service.suggest(1L, checkIn, checkIn.plusDays(3), 20);
+
+        assertEquals(2, suggestions.size());
+        assertEquals(checkIn.minusDays(8), suggestions.get(0).getCheckInDate());
+        assertEquals(checkIn.minusDays(5), suggestions.get(0).getCheckOutDate());
+        assertEquals(checkIn.plusDays(10), suggestions.get(1).getCheckInDate());
+        assertEquals(checkIn.plusDays(13), suggestions.get(1).getCheckOutDate());
+    }
+
+    @Test
+    void suggest_ShouldKeepStayInsideWindow_WhenWindowEndsMidGap() {
+        Room requested = room(1L, 101, RoomType.DOUBLE);
+        Room sameType = room(2L, 102, RoomType.DOUBLE);
+        when(roomCatalogCache.getById(1L)).thenReturn(Optional.of(requested));
+        when(roomCatalogCache.getAll()).thenReturn(List.of(requested, sameType));
+        // The window ends 30 days after check-out; both rooms stay free past it
+        LocalDate windowEnd = checkIn.plusDays(33);
+        when(reservationRepository.findActiveIntervalsByRoomIdsOverlapping(any(), any(), any())).thenReturn(List.of(
+                interval(1L, checkIn.minusDays(30), windowEnd.minusDays(3)),
+                interval(2L, checkIn.minusDays(30), windowEnd.minusDays(2))));
+
+        List<DateSuggestionDto> suggestions = service.suggest(1L, checkIn, checkIn.plusDays(3), 20);
+
+        assertEquals(1, suggestions.size());
+        assertEquals(101, suggestions.get(0).getRoomNumber());
+        assertEquals(windowEnd.minusDays(3), suggestions.get(0).getCheckInDate());
+        assertEquals(windowEnd, suggestions.get(0).getCheckOutDate());
+    }
+
+    @Test
+    void suggest_ShouldFallBackToSameTypeRooms_WhenRequestedRoomIsNeverFree() {
+        Room requested = room(1L, 101, RoomType.DOUBLE);
+        Room sameType = room(2L, 102, RoomType.DOUBLE);
+        Room otherType = room(3L, 103, RoomType.SUITE);
+        when(roomCatalogCache.getById(1L)).thenReturn(Optional.of(requested));
+        when(roomCatalogCache.getAll()).thenReturn(List.of(requested, sameType, otherType));
+        when(reservationRepository.findActiveIntervalsByRoomIdsOverlapping(any(), any(), any())).thenReturn(List.of(
+                interval(1L, checkIn.minusDays(40), checkIn.plusDays(40)),
+                interval(2L, checkIn.minusDays(2), checkIn.plusDays(1))));
+
+        List<DateSuggestionDto> suggestions = service.suggest(1L, checkIn, checkIn.plusDays(3), 20);
+
+        assertFalse(suggestions.isEmpty());
+        assertTrue(suggestions.stream().allMatch(s -> s.getRoomId().equals(2L)));
+        assertEquals(checkIn.plusDays(1), suggestions.get(0).getCheckInDate());
+        assertEquals(1, suggestions.get(0).getDaysShifted());
+    }
+
+    private Room room(Long id, int roomNumber, RoomType type) {
+        Room room = new Room();
+        room.setId(id);
+        room.setRoomNumber(roomNumber);
+        room.setType(type);
+        return room;
+    }
+}
@@ -0,0 +1,51 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.repositories.BookedInterval;
+import com.reservations.hotel.repositories.IdRange;
+
+import java.time.LocalDate;
+
+/**
+ * Stand-ins for the repository projection interfaces, for stubbing queries in unit tests.
+ */
+final class TestProjections {
+    private TestProjections() {
+    }
+
+    static BookedInterval interval(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        return new Interval(roomId, checkIn, checkOut);
+    }
+
+    static IdRange range(Long minId, Long maxId) {
+        return new Range(minId, maxId);
+    }
+
+    record Interval(Long roomId, LocalDate checkIn, LocalDate checkOut) implements BookedInterval {
+        @Override
+        public Long getRoomId() {
+            return roomId;
+        }
+
+        @Override
+        public LocalDate getCheckInDate() {
+            return checkIn;
+        }
+
+        @Override
+        public LocalDate getCheckOutDate() {
+            return checkOut;
+        }
+    }
+
+    record Range(Long minId, Long maxId) implements IdRange {
+        @Override
+        public Long getMinId() {
+            return minId;
+        }
+
+        @Override
+        public Long getMaxId() {
+            return maxId;
+        }
+    }
+}
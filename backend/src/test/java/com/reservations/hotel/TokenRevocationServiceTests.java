@@ -0,0 +1,78 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.repositories.RevokedTokenRepository;
+import com.reservations.hotel.services.BloomFilter;
+import com.reservations.hotel.services.JobLockService;
+import com.reservations.hotel.services.TokenRevocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationServiceTests {
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+    @Mock
+    private JobLockService jobLockService;
+
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService = new TokenRevocationService(revokedTokenRepository, jobLockService, new SimpleMeterRegistry(), 1000, 0.001, 5000);
+    }
+
+    @Test
+    void isRevoked_ShouldNotQueryDatabase_WhenIdIsNotInFilter() {
+        when(revokedTokenRepository.findUnexpiredIds(any())).thenReturn(List.of("revoked-1", "revoked-2"));
+        tokenRevocationService.rebuild();
+
+        assertFalse(tokenRevocationService.isRevoked(UUID.randomUUID().toString()));
+
+        verify(revokedTokenRepository, never()).existsById(anyString());
+    }
+
+    @Test
+    void isRevoked_ShouldConfirmInDatabase_WhenIdIsInFilter() {
+        when(revokedTokenRepository.findUnexpiredIds(any())).thenReturn(List.of());
+        when(revokedTokenRepository.findRevokedWithin(anyDouble())).thenReturn(List.of("synced"));
+        when(revokedTokenRepository.revoke(eq("local"), any())).thenReturn(1);
+        when(revokedTokenRepository.existsById(anyString())).thenReturn(true);
+        tokenRevocationService.rebuild();
+
+        assertTrue(tokenRevocationService.revoke("local", Instant.now().plusSeconds(60)));
+
+        assertTrue(tokenRevocationService.isRevoked("local"));
+        assertTrue(tokenRevocationService.isRevoked("synced"));
+        verify(revokedTokenRepository).existsById("local");
+        verify(revokedTokenRepository).existsById("synced");
+    }
+
+    @Test
+    void bloomFilter_ShouldStayNearFalsePositiveRate_AtExpectedSize() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("added-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(i >= 10_000 || filter.mightContain("added-" + i));
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+    }
+}
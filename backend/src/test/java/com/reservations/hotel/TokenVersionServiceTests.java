@@ -0,0 +1,69 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.exceptions.UserNotFoundException;
+import com.reservations.hotel.repositories.UserRepository;
+import com.reservations.hotel.services.TokenVersionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenVersionServiceTests {
+    @Mock
+    private UserRepository userRepository;
+
+    private TokenVersionService tokenVersionService;
+
+    @BeforeEach
+    void setUp() {
+        tokenVersionService = new TokenVersionService(userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void isCurrent_ShouldQueryOnce_WhenCheckedRepeatedly() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0L));
+
+        assertTrue(tokenVersionService.isCurrent(1L, 0));
+        assertTrue(tokenVersionService.isCurrent(1L, 0));
+
+        verify(userRepository, times(1)).findTokenVersionById(1L);
+    }
+
+    @Test
+    void isCurrent_ShouldQueryAgain_WhenLookupFailed() {
+        when(userRepository.findTokenVersionById(1L))
+                .thenThrow(new IllegalStateException("connection refused"))
+                .thenReturn(Optional.of(0L));
+
+        assertThrows(IllegalStateException.class, () -> tokenVersionService.isCurrent(1L, 0));
+        assertTrue(tokenVersionService.isCurrent(1L, 0));
+    }
+
+    @Test
+    void revokeTokens_ShouldRejectOldVersionImmediately() {
+        when(userRepository.findTokenVersionById(1L)).thenReturn(Optional.of(0L), Optional.of(1L));
+        when(userRepository.incrementTokenVersion(1L)).thenReturn(1);
+        assertTrue(tokenVersionService.isCurrent(1L, 0));
+
+        tokenVersionService.revokeTokens(1L);
+
+        assertFalse(tokenVersionService.isCurrent(1L, 0));
+        assertTrue(tokenVersionService.isCurrent(1L, 1));
+    }
+
+    @Test
+    void revokeTokens_ShouldThrow_WhenUserDoesNotExist() {
+        when(userRepository.incrementTokenVersion(2L)).thenReturn(0);
+
+        assertThrows(UserNotFoundException.class, () -> tokenVersionService.revokeTokens(2L));
+    }
+}
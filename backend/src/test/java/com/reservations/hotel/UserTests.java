@@ -0,0 +1,36 @@
+package com.reservations.hotel;
+
+import com.reservations.hotel.models.Role;
+import com.reservations.hotel.models.User;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserTests {
+
+    @Test
+    void setRole_ShouldBumpTokenVersion_WhenRoleChanges() {
+        User user = new User("user@example.com", "password");
+
+        user.setRole(Role.USER);
+        assertEquals(0, user.getTokenVersion());
+
+        user.setRole(Role.ADMIN);
+        assertEquals(1, user.getTokenVersion());
+        assertEquals(Role.ADMIN, user.getRole());
+    }
+
+    @Test
+    void setEnabled_ShouldBumpTokenVersion_WhenFlagChanges() {
+        User user = new User("user@example.com", "password");
+        user.setEnabled(true);
+        long version = user.getTokenVersion();
+
+        user.setEnabled(true);
+        assertEquals(version, user.getTokenVersion());
+
+        user.setEnabled(false);
+        assertEquals(version + 1, user.getTokenVersion());
+        assertFalse(user.isEnabled());
+    }
+}
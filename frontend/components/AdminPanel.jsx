@@ -80,6 +80,8 @@ const AdminPanel = () => {
   // Reservations state
   const [reservations, setReservations] = useState([]);
   const [reservationsLoading, setReservationsLoading] = useState(false);
+  const [reservationsNext, setReservationsNext] = useState(null);
+  const [loadingMoreReservations, setLoadingMoreReservations] = useState(false);
   const [reservationUserIdFilter, setReservationUserIdFilter] = useState('');
 
   useEffect(() => {
@@ -128,21 +130,16 @@ const AdminPanel = () => {
     }
   };
 
+  // Reservations come a page at a time, oldest first; "Load more" follows the next cursor
   const fetchReservations = async () => {
     try {
       setReservationsLoading(true);
-      // Admin endpoint: get all reservations
-      const [resAll, usersRes] = await Promise.all([
-        hotelAPI.reservations.getAll(),
+      const [page, usersRes] = await Promise.all([
+        hotelAPI.reservations.getPage(),
         hotelAPI.users.getAllUsers()
       ]);
-      const usersMap = new Map((usersRes.data || []).map(u => [u.email, { id: u.id, email: u.email }]));
-      const list = (resAll.data || []).map(r => ({
-        ...r,
-        userId: usersMap.get(r.email)?.id || null,
-        userEmail: r.email
-      }));
-      setReservations(list);
+      setReservations(withUserIds(page.data.items || [], usersRes.data || []));
+      setReservationsNext(page.data.next);
     } catch (err) {
       setError('Failed to load reservations');
     } finally {
@@ -150,6 +147,29 @@ const AdminPanel = () => {
     }
   };
 
+  const loadMoreReservations = async () => {
+    if (!reservationsNext) return;
+    try {
+      setLoadingMoreReservations(true);
+      const page = await hotelAPI.reservations.getPage(reservationsNext);
+      setReservations(prev => [...prev, ...withUserIds(page.data.items || [], users)]);
+      setReservationsNext(page.data.next);
+    } catch (err) {
+      setError('Failed to load more reservations');
+    } finally {
+      setLoadingMoreReservations(false);
+    }
+  };
+
+  const withUserIds = (items, userList) => {
+    const usersMap = new Map(userList.map(u => [u.email, u.id]));
+    return items.map(r => ({
+      ...r,
+      userId: usersMap.get(r.email) || null,
+      userEmail: r.email
+    }));
+  };
+
   // Room management
   const openRoomDialog = (mode, room = null) => {
     if (mode === 'edit' && room) {
@@ -363,6 +383,13 @@ const AdminPanel = () => {
                     ))}
                   </TableBody>
                 </Table>
+                {reservationsNext && (
+                  <Box sx={{ display: 'flex', justifyContent: 'center', p: 2 }}>
+                    <Button onClick={loadMoreReservations} disabled={loadingMoreReservations}>
+                      {loadingMoreReservations ? 'Loading...' : 'Load more'}
+                    </Button>
+                  </Box>
+                )}
               </TableContainer>
             )}
           </CardContent>
@@ -53,12 +53,12 @@ const Login = () => {
         password: formData.password
       });
 
-      const { token, user } = response.data;
+      const { token, refreshToken, user } = response.data;
 
       if (token) {
         setSuccess('Login successful! Redirecting...');
         // Immediately update AuthContext and redirect
-        const loginResult = await login(user, token);
+        const loginResult = await login(user, token, refreshToken);
         if (loginResult.success) {
           navigate('/dashboard');
         } else {
@@ -40,10 +40,13 @@ export const AuthProvider = ({ children }) => {
     initializeAuth();
   }, []);
 
-  const login = async (userData, token) => {
+  const login = async (userData, token, refreshToken) => {
     try {
       setLoading(true);
       apiHelpers.setToken(token);
+      if (refreshToken) {
+        apiHelpers.setRefreshToken(refreshToken);
+      }
       
       // Set basic user data fast
       setUser(userData);
@@ -85,6 +88,11 @@ export const AuthProvider = ({ children }) => {
   };
 
   const logout = () => {
+    // Revokes the refresh token and the current access token server-side; local sign-out does not wait for it
+    const refreshToken = apiHelpers.getRefreshToken();
+    if (refreshToken) {
+      hotelAPI.auth.logout(refreshToken, apiHelpers.getToken()).catch((error) => console.error('Logout error:', error));
+    }
     apiHelpers.removeToken();
     setUser(null);
     setIsAuthenticated(false);
@@ -27,14 +27,42 @@ api.interceptors.request.use(
 );
 
 
+// Access tokens live 15 minutes. On a 401 the refresh token is exchanged once for a new pair (shared by
+// concurrent requests, since a refresh token can be used only once) and the request is retried.
+let refreshing = null;
+
+const refreshTokens = () => {
+  if (!refreshing) {
+    const refreshToken = localStorage.getItem('refresh_token');
+    refreshing = (refreshToken
+      ? axios.post(`${API_BASE_URL}/auth/refresh`, { refreshToken }, { timeout: 10000 })
+      : Promise.reject(new Error('No refresh token')))
+      .then((response) => {
+        localStorage.setItem('jwt_token', response.data.token);
+        localStorage.setItem('refresh_token', response.data.refreshToken);
+        return response.data.token;
+      })
+      .finally(() => {
+        refreshing = null;
+      });
+  }
+  return refreshing;
+};
+
 api.interceptors.response.use(
   (response) => response,
-  (error) => {
-    
-    if (error.response?.status === 401) {
-
-      localStorage.removeItem('jwt_token');
-
+  async (error) => {
+    const request = error.config;
+    if (error.response?.status === 401 && request && !request._retried && !request.url?.startsWith('/auth/')) {
+      request._retried = true;
+      try {
+        const token = await refreshTokens();
+        request.headers.Authorization = `Bearer ${token}`;
+        return api(request);
+      } catch (refreshError) {
+        localStorage.removeItem('jwt_token');
+        localStorage.removeItem('refresh_token');
+      }
     }
     return Promise.reject(error);
   }
@@ -48,6 +76,10 @@ export const hotelAPI = {
     login: (credentials) => api.post('/auth/login', credentials),
     verify: (verificationData) => api.post('/auth/verify', verificationData),
     resend: (email) => api.post('/auth/resend', { email }),
+    refresh: (refreshToken) => api.post('/auth/refresh', { refreshToken }),
+    // The access token is passed explicitly, it is cleared from storage before the request goes out
+    logout: (refreshToken, token) => api.post('/auth/logout', { refreshToken },
+      token ? { headers: { Authorization: `Bearer ${token}` } } : {}),
   },
 
   // User endpoints
@@ -67,13 +99,13 @@ export const hotelAPI = {
         Object.entries(params || {}).filter(([_, value]) => value !== '' && value != null)
       );
       console.log('🧹 API: Cleaned params:', cleanParams);
-      const request = api.get('/rooms', { params: cleanParams });
+      const request = api.get('/rooms', { params: { ...cleanParams, unpaged: true } });
       console.log('📤 API: Making request to:', request);
       return request;
     },
     getAll: () => {
       console.log('🏨 API: Getting all rooms');
-      return api.get('/rooms');
+      return api.get('/rooms', { params: { unpaged: true } });
     }, 
     create: (roomData) => api.post('/rooms', roomData), // Admin only
     update: (roomId, roomData) => api.patch(`/rooms/${roomId}`, roomData), // Admin only
@@ -85,7 +117,7 @@ export const hotelAPI = {
     create: (reservationData) => api.post('/reservations', reservationData),
     confirm: (reservationId) => api.patch(`/reservations/${reservationId}/confirm`),
     cancel: (reservationId) => api.patch(`/reservations/${reservationId}/cancel`),
-    getAll: () => api.get('/reservations'), // Admin only
+    getPage: (cursor, limit = 50) => api.get('/reservations', { params: cursor ? { cursor, limit } : { limit } }), // Admin only
   },
 };
 
@@ -107,8 +139,19 @@ export const apiHelpers = {
   },
 
 
+  getRefreshToken: () => {
+    return localStorage.getItem('refresh_token');
+  },
+
+
+  setRefreshToken: (refreshToken) => {
+    localStorage.setItem('refresh_token', refreshToken);
+  },
+
+
   removeToken: () => {
     localStorage.removeItem('jwt_token');
+    localStorage.removeItem('refresh_token');
   },
 
 